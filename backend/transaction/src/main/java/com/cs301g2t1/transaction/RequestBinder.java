@@ -0,0 +1,84 @@
+package com.cs301g2t1.transaction;
+
+import com.cs301g2t1.transaction.TransactionHandler.Request;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Turns Lambda events into TransactionHandler.Request objects.
+ *
+ * The request JSON is deserialized straight into Request (and its Transaction) by one reader built once per
+ * container, instead of being parsed into Maps and copied over field by field. The same mapper serializes
+ * responses.
+ */
+public final class RequestBinder {
+
+    static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            // Enums are accepted in any case. The Map-based parsing did so for ingestMode and the query filters,
+            // but required a transaction's status and type to match exactly and dropped anything else
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private static final ObjectReader REQUEST_READER = MAPPER.readerFor(Request.class);
+
+    private RequestBinder() {
+    }
+
+    /**
+     * Binds an ALB/API Gateway event (operation inside the body, as a JSON string or a map) or a direct
+     * invocation (operation at the top level). Returns null if the event carries no operation.
+     */
+    public static Request bind(Map<?, ?> event) throws IOException {
+        Object body = event.get("body");
+        Request request = null;
+        if (body instanceof String json) {
+            if (Boolean.TRUE.equals(event.get("isBase64Encoded"))) {
+                json = new String(Base64.getDecoder().decode(json), StandardCharsets.UTF_8);
+            }
+            request = fromJson(json);
+        } else if (body instanceof Map<?, ?> bodyMap) {
+            request = fromMap(bodyMap);
+        }
+        if (request != null && request.operation != null) {
+            return request;
+        }
+        if (event.get("operation") != null) {
+            return fromMap(event);
+        }
+        return null;
+    }
+
+    public static Request fromJson(String json) throws IOException {
+        return REQUEST_READER.readValue(json);
+    }
+
+    // For events the Lambda runtime has already turned into Maps; converted through a token buffer, not a tree
+    public static Request fromMap(Map<?, ?> map) {
+        return MAPPER.convertValue(map, Request.class);
+    }
+
+    // The reason a request could not be bound, without Jackson's source location (which spans lines)
+    static String describe(Exception e) {
+        if (e instanceof IllegalArgumentException && e.getCause() instanceof JsonProcessingException cause) {
+            return cause.getOriginalMessage();
+        }
+        if (e instanceof JsonProcessingException jsonError) {
+            return jsonError.getOriginalMessage();
+        }
+        return e.getMessage();
+    }
+}
@@ -1,281 +1,344 @@
 package com.cs301g2t1.transaction;
 
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.cs301g2t1.transaction.repository.ConnectionPool;
+import com.cs301g2t1.transaction.service.IngestionService;
+import com.cs301g2t1.transaction.service.IngestionServiceImpl;
 import com.cs301g2t1.transaction.service.TransactionService;
 import com.cs301g2t1.transaction.service.TransactionServiceImpl;
+import com.cs301g2t1.transaction.utils.EnvUtils;
+import com.cs301g2t1.transaction.utils.LocalDirectoryFacade;
 import com.cs301g2t1.transaction.utils.SFTPFacade;
 import com.cs301g2t1.transaction.utils.SFTPFacadeImpl;
+import com.cs301g2t1.transaction.utils.SftpSession;
+import com.cs301g2t1.transaction.utils.TransactionCsvReader;
 import com.cs301g2t1.transaction.utils.TransactionUtils;
 
-import java.io.InputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.cs301g2t1.transaction.model.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.crac.Core;
+import org.crac.Resource;
 
 /**
  * Lambda handler for processing transactions
+ *
+ * Also a CRaC resource: with Lambda SnapStart enabled, beforeCheckpoint primes the initialized container before it
+ * is snapshotted and afterRestore reconnects each container restored from that snapshot.
  */
-public class TransactionHandler implements RequestHandler<Object, Object> {
+public class TransactionHandler implements RequestHandler<Object, Object>, Resource {
+
+    // Time left for checkpointing and responding once dailyFetch stops starting new batches
+    private static final long INGEST_TIME_RESERVE_MS = EnvUtils.getLong("INGEST_TIME_RESERVE_MS", 30_000);
+
+    // Where dailyFetch reads SFTP_TARGET from: "sftp" (default) or "local" for a directory on this machine
+    private static final String INGEST_SOURCE = EnvUtils.getString("INGEST_SOURCE", "sftp");
+
+    // Largest number of items accepted by CREATE_BATCH, UPDATE_BATCH and DELETE_BATCH
+    private static final int BATCH_MAX_ITEMS = EnvUtils.getInt("BATCH_MAX_ITEMS", 1000);
+
+    // Exercise the request path in beforeCheckpoint, so containers restored from the snapshot start warm
+    private static final boolean SNAPSTART_PRIMING = EnvUtils.getBoolean("SNAPSTART_PRIMING", true);
+    // Rounds of binding, serialization and CSV parsing while priming; enough for the JIT to compile them
+    private static final int PRIMING_ROUNDS = 2000;
+    // Rounds of the read-only database requests below
+    private static final int PRIMING_DB_ROUNDS = 20;
+    // Read-only requests for ids and clients that cannot exist, so priming never touches real rows
+    private static final List<String> PRIMING_DB_REQUESTS = List.of(
+            "{\"operation\":\"READ\",\"transactionId\":-1}",
+            "{\"operation\":\"READ_ALL\",\"limit\":1,\"fromDate\":\"1900-01-01\",\"toDate\":\"1900-01-01\"}",
+            "{\"operation\":\"READ_BY_CLIENT\",\"transactionId\":-1,\"limit\":1,\"status\":\"PENDING\"}",
+            "{\"operation\":\"READ_SUMMARY\",\"transactionId\":-1}");
+    private static final String PRIMING_TRANSACTION = "{\"id\":1,\"clientId\":1,\"transactionType\":\"DEPOSIT\","
+            + "\"amount\":10.5,\"date\":\"2025-01-01\",\"status\":\"PENDING\"}";
+    private static final List<String> PRIMING_BODIES = List.of(
+            "{\"operation\":\"CREATE\",\"transaction\":" + PRIMING_TRANSACTION + "}",
+            "{\"operation\":\"UPDATE_BATCH\",\"transactions\":[" + PRIMING_TRANSACTION + "]}",
+            "{\"operation\":\"READ_BY_CLIENT\",\"transactionId\":1,\"limit\":10,\"after\":\"x\","
+                    + "\"fromDate\":\"2025-01-01\",\"transactionType\":\"W\"}",
+            "{\"operation\":\"TRANSITION_STATUS\",\"transactionIds\":[1,2],\"newStatus\":\"COMPLETED\"}");
+    private static final byte[] PRIMING_CSV = ("Id,Client ID,Transaction,Amount,Date,Status\n"
+            + "1,1,D,10.5,2025-01-01,Pending\n"
+            + "2,1,W,3.25,2025-01-02,Completed\n").getBytes(StandardCharsets.UTF_8);
 
     private final TransactionService transactionService = new TransactionServiceImpl();
-    private final ObjectMapper objectMapper;
+    private final Supplier<SFTPFacade> fileSource = fileSourceFor(INGEST_SOURCE);
+    private final IngestionService ingestionService = new IngestionServiceImpl(transactionService, fileSource);
+
+    private static final ObjectWriter RESPONSE_WRITER = RequestBinder.MAPPER.writer();
+
+    // Operation name -> handler method
+    private static final Map<String, Operation> OPERATIONS = Map.ofEntries(
+            Map.entry("testSftpConnection", TransactionHandler::testSftpConnection),
+            Map.entry("dailyFetch", TransactionHandler::handleDailyFetch),
+            Map.entry("CREATE", TransactionHandler::handleCreate),
+            Map.entry("READ", TransactionHandler::handleRead),
+            Map.entry("READ_ALL", TransactionHandler::handleReadAll),
+            Map.entry("READ_BY_CLIENT", TransactionHandler::handleReadByClient),
+            Map.entry("READ_SUMMARY", TransactionHandler::handleReadSummary),
+            Map.entry("UPDATE", TransactionHandler::handleUpdate),
+            Map.entry("DELETE", TransactionHandler::handleDelete),
+            Map.entry("CREATE_BATCH", TransactionHandler::handleCreateBatch),
+            Map.entry("UPDATE_BATCH", TransactionHandler::handleUpdateBatch),
+            Map.entry("DELETE_BATCH", TransactionHandler::handleDeleteBatch),
+            Map.entry("TRANSITION_STATUS", TransactionHandler::handleTransitionStatus));
+
+    // Operations that change the schema, remove data or expose pool, cache and ingestion internals. Dispatched
+    // only for direct invocations (deploys, schedules, the console), never for requests that arrive through the ALB
+    private static final Map<String, Operation> ADMIN_OPERATIONS = Map.of(
+            "detachPartitions", TransactionHandler::handleDetachPartitions,
+            "initSchema", TransactionHandler::handleInitSchema,
+            "metrics", TransactionHandler::handleMetrics);
 
     public TransactionHandler() {
-        // Initialize and configure the ObjectMapper
-        this.objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-        objectMapper.configure(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        // Registers beforeCheckpoint/afterRestore; does nothing unless the JVM is snapshotted (SnapStart or CRaC)
+        Core.getGlobalContext().register(this);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object handle(TransactionHandler handler, Request request, Context context);
     }
 
+    private static Supplier<SFTPFacade> fileSourceFor(String source) {
+        switch (source.toLowerCase()) {
+            case "sftp":
+                return SFTPFacadeImpl::new;
+            case "local":
+                return LocalDirectoryFacade::new;
+            default:
+                throw new IllegalArgumentException("Invalid INGEST_SOURCE: " + source);
+        }
+    }
+
+    /**
+     * A request as bound by RequestBinder. The paging and filter fields (limit, after, fromDate, toDate, status,
+     * transactionType) sit at the top level of the request and are gathered into query.
+     */
     public static class Request {
         public String operation;
         public Long transactionId;
+        @JsonIgnore
         public Optional<Transaction> transaction = Optional.empty();
-    }
-
-    @Override
-    public Object handleRequest(Object input, Context context) {
-        context.getLogger().log("Received request: " + input);
+        public IngestMode ingestMode;
+        public Integer parallelism;
+        public Boolean pipeline;
+        // Set only when the caller asks for a page (limit, after or any filter); otherwise reads return everything
+        @JsonIgnore
+        public TransactionQuery query;
+        // detachPartitions: partitions ending on or before this date are detached, and dropped when dropTables is set
+        public LocalDate beforeDate;
+        public Boolean dropTables;
+        // CREATE_BATCH and UPDATE_BATCH (each with its id) take transactions; DELETE_BATCH takes transactionIds
+        public List<Transaction> transactions;
+        public List<Long> transactionIds;
+        // TRANSITION_STATUS: rows in fromStatus (default PENDING) matching transactionIds, clientId and the
+        // fromDate/toDate range move to newStatus
+        public Long clientId;
+        public TransactionStatus fromStatus;
+        public TransactionStatus newStatus;
+
+        @JsonSetter("transaction")
+        void bindTransaction(Transaction transaction) {
+            this.transaction = Optional.ofNullable(transaction);
+        }
 
-        // Check if this is an API Gateway/ALB request with path information
-        if (input instanceof Map requestMap) {            
-            // Check if this is a health check request to /api/v1/health
-            if (requestMap.containsKey("path")) {
-                String path = (String) requestMap.get("path");
-                if ("/api/v1/health".equals(path)) {
-                    context.getLogger().log("Processing health check request");
-                    return handleHealthCheck(new HashMap<>());
-                }
+        @JsonSetter("limit")
+        void bindLimit(Integer limit) {
+            if (limit != null) {
+                pageQuery().setLimit(limit);
             }
-            
-            // Handle ALB/API Gateway request format (where operation is in the body)
-            if (requestMap.containsKey("body")) {
-                try {
-                    // Get the body content which may be a string or a map
-                    Object bodyObj = requestMap.get("body");
-                    Map<String, Object> bodyMap;
-                    
-                    if (bodyObj instanceof String) {
-                        // Parse the body string as JSON
-                        context.getLogger().log("Parsing body string: " + bodyObj);
-                        bodyMap = objectMapper.readValue((String) bodyObj, Map.class);
-                    } else if (bodyObj instanceof Map) {
-                        // Body is already a map
-                        bodyMap = (Map<String, Object>) bodyObj;
-                    } else {
-                        context.getLogger().log("Unexpected body format: " + (bodyObj != null ? bodyObj.getClass() : "null"));
-                        return createErrorResponse(400, "Invalid request format");
-                    }
-                    
-                    context.getLogger().log("Parsed body: " + bodyMap);
-                    
-                    // Now extract operation and other fields from the bodyMap
-                    if (bodyMap.containsKey("operation")) {
-                        Request request = new Request();
-                        request.operation = (String) bodyMap.get("operation");
-                        
-                        if (bodyMap.containsKey("transactionId")) {
-                            // Handle different number types safely
-                            Object transactionIdObj = bodyMap.get("transactionId");
-                            if (transactionIdObj instanceof Number) {
-                                request.transactionId = ((Number) transactionIdObj).longValue();
-                            } else if (transactionIdObj != null) {
-                                try {
-                                    request.transactionId = Long.valueOf(transactionIdObj.toString());
-                                } catch (NumberFormatException e) {
-                                    context.getLogger().log("Invalid transactionId format: " + transactionIdObj);
-                                }
-                            }
-                        }
-                        
-                        if (bodyMap.containsKey("transaction")) {
-                            Object transactionObj = bodyMap.get("transaction");
-                            if (transactionObj != null) {
-                                if (transactionObj instanceof Transaction) {
-                                    request.transaction = Optional.of((Transaction) transactionObj);
-                                } else if (transactionObj instanceof Map mapTransactionObj) {
-                                    // Convert the Map to a Transaction object
-                                    Transaction transaction = mapToTransaction(mapTransactionObj);
-                                    request.transaction = Optional.of(transaction);
-                                }
-                            }
-                        }
-                        
-                        return handleRegularRequest(request, context);
-                    }
-                } catch (Exception e) {
-                    context.getLogger().log("Error parsing request body: " + e.getMessage());
-                    e.printStackTrace();
-                    return createErrorResponse(400, "Error parsing request: " + e.getMessage());
-                }
-            }
-            
-            // For compatibility with original code, convert Map to Request if it has operation
-            if (requestMap.containsKey("operation")) {
-                Request request = new Request();
-                request.operation = (String) requestMap.get("operation");
-                
-                if (requestMap.containsKey("transactionId")) {
-                    // Handle different number types safely
-                    Object transactionIdObj = requestMap.get("transactionId");
-                    if (transactionIdObj instanceof Number) {
-                        request.transactionId = ((Number) transactionIdObj).longValue();
-                    } else if (transactionIdObj != null) {
-                        try {
-                            request.transactionId = Long.valueOf(transactionIdObj.toString());
-                        } catch (NumberFormatException e) {
-                            context.getLogger().log("Invalid transactionId format: " + transactionIdObj);
-                        }
-                    }
-                }
-                
-                if (requestMap.containsKey("transaction")) {
-                    // This assumes transaction is already a proper object that can be cast to Transaction
-                    // In a real implementation you might need JSON deserialization here
-                    Object transactionObj = requestMap.get("transaction");
-                    if (transactionObj != null) {
-                        if (transactionObj instanceof Transaction) {
-                            request.transaction = Optional.of((Transaction) transactionObj);
-                        } else if (transactionObj instanceof Map mapTransactionObj) {
-                            // Convert the Map to a Transaction object
-                            Transaction transaction = mapToTransaction(mapTransactionObj);
-                            request.transaction = Optional.of(transaction);
-                        }
-                    }
-                }
-                
-                return handleRegularRequest(request, context);
-            }
-        } else if (input instanceof Request) {
-            // If it's already a Request object, process it directly
-            return handleRegularRequest((Request) input, context);
         }
 
-        context.getLogger().log("Could not process request format");
-        return createErrorResponse(400, "Invalid request format");
-    }
-    
-    // Helper method to create error response
-    private Map<String, Object> createErrorResponse(int statusCode, String errorMessage) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("statusCode", statusCode);
-        response.put("headers", createCorsHeaders());
-        response.put("body", "{\"result\":false,\"errorMessage\":\"" + errorMessage.replace("\"", "\\\"") + "\",\"data\":null}");
-        return response;
-    }
+        @JsonSetter("after")
+        void bindAfter(String after) {
+            if (after != null) {
+                pageQuery().setAfter(after);
+            }
+        }
 
-    private Transaction mapToTransaction(Map<String, Object> map) {
-        Transaction transaction = new Transaction();
-        
-        if (map.containsKey("id") && map.get("id") != null) {
-            Object idObj = map.get("id");
-            if (idObj instanceof Number) {
-                transaction.setId(((Number) idObj).longValue());
-            } else {
-                transaction.setId(Long.valueOf(idObj.toString()));
+        @JsonSetter("fromDate")
+        void bindFromDate(LocalDate fromDate) {
+            if (fromDate != null) {
+                pageQuery().setFromDate(fromDate);
             }
         }
-        
-        if (map.containsKey("clientId") && map.get("clientId") != null) {
-            Object clientIdObj = map.get("clientId");
-            if (clientIdObj instanceof Number) {
-                transaction.setClientId(((Number) clientIdObj).longValue());
-            } else {
-                transaction.setClientId(Long.valueOf(clientIdObj.toString()));
+
+        @JsonSetter("toDate")
+        void bindToDate(LocalDate toDate) {
+            if (toDate != null) {
+                pageQuery().setToDate(toDate);
             }
         }
-        
-        if (map.containsKey("transactionType")) {
-            // Convert String to TransactionType enum with special mapping for DEPOSIT/WITHDRAWAL
-            String typeStr = (String) map.get("transactionType");
-            if ("DEPOSIT".equalsIgnoreCase(typeStr)) {
-                transaction.setTransactionType(TransactionType.D);
-            } else if ("WITHDRAWAL".equalsIgnoreCase(typeStr)) {
-                transaction.setTransactionType(TransactionType.W);
-            } else {
-                try {
-                    TransactionType type = TransactionType.valueOf(typeStr);
-                    transaction.setTransactionType(type);
-                } catch (IllegalArgumentException e) {
-                    // Handle invalid enum value
-                    System.err.println("Invalid transaction type: " + typeStr);
-                }
+
+        @JsonSetter("status")
+        void bindStatus(TransactionStatus status) {
+            if (status != null) {
+                pageQuery().setStatus(status);
             }
         }
-        
-        if (map.containsKey("amount") && map.get("amount") != null) {
-            Object amountObj = map.get("amount");
-            if (amountObj instanceof Number) {
-                transaction.setAmount(((Number) amountObj).doubleValue());
-            } else {
-                transaction.setAmount(Double.valueOf(amountObj.toString()));
+
+        @JsonSetter("transactionType")
+        void bindTransactionType(TransactionType transactionType) {
+            if (transactionType != null) {
+                pageQuery().setTransactionType(transactionType);
             }
         }
-        
-        if (map.containsKey("date")) {
-            // Convert String to LocalDate
-            String dateStr = (String) map.get("date");
-            try {
-                LocalDate date = LocalDate.parse(dateStr);
-                transaction.setDate(date);
-            } catch (Exception e) {
-                // Handle date parsing error
-                System.err.println("Invalid date format: " + dateStr);
+
+        private TransactionQuery pageQuery() {
+            if (query == null) {
+                query = new TransactionQuery();
             }
+            return query;
         }
-        
-        if (map.containsKey("status")) {
-            // Convert String to TransactionStatus enum
-            String statusStr = (String) map.get("status");
+    }
+
+    /**
+     * Runs once, before Lambda SnapStart snapshots this initialized container. Sends representative requests
+     * through the handler so the snapshot holds loaded classes, built Jackson (de)serializers and compiled hot
+     * paths, then empties the caches and closes the database and SFTP connections, which would not survive
+     * the snapshot. Priming failures are logged and never fail the snapshot.
+     */
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        if (SNAPSTART_PRIMING) {
+            long start = System.currentTimeMillis();
             try {
-                TransactionStatus status = TransactionStatus.valueOf(statusStr);
-                transaction.setStatus(status);
-            } catch (IllegalArgumentException e) {
-                // Handle invalid enum value
-                System.err.println("Invalid transaction status: " + statusStr);
+                prime();
+                System.out.println("Primed for snapshot in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                System.out.println("Priming for snapshot failed: " + e.getMessage());
             }
         }
-        
-        return transaction;
+        transactionService.clearCaches();
+        SftpSession.getInstance().invalidate();
+        ConnectionPool.getInstance().suspend();
     }
 
-    // Handles the original request format
-    private Object handleRegularRequest(Request request, Context context) {
-        try {
-            switch (request.operation) {
-                case "testSftpConnection":
-                    return testSftpConnection(request, context);
+    // Runs in every container restored from the snapshot, before its first request
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        ConnectionPool.getInstance().resume();
+        // The snapshot may predate initSchema, so the table layout is read again from the restored container
+        transactionService.clearCaches();
+    }
+
+    private void prime() throws IOException {
+        Context context = new PrimingContext();
+        for (int round = 0; round < PRIMING_DB_ROUNDS; round++) {
+            for (String json : PRIMING_DB_REQUESTS) {
+                handleRegularRequest(RequestBinder.fromJson(json), context, false);
+            }
+        }
 
-                case "dailyFetch":
-                    return handleDailyFetch(request, context);
+        Transaction transaction = RequestBinder.fromJson(PRIMING_BODIES.get(0)).transaction.get();
+        TransactionPage page = new TransactionPage();
+        page.setItems(List.of(transaction, transaction));
+        page.setNextCursor("cursor");
+        page.setLimit(2);
+        BatchItemResult item = new BatchItemResult();
+        item.setTransaction(transaction);
+        BatchResult batch = new BatchResult();
+        batch.setItems(List.of(item));
+        for (int round = 0; round < PRIMING_ROUNDS; round++) {
+            for (String body : PRIMING_BODIES) {
+                RequestBinder.bind(Map.of("body", body));
+            }
+            convertToJson(new Response<>(true, "", transaction));
+            convertToJson(new Response<>(true, "", page));
+            convertToJson(new Response<>(true, "", batch));
+            try (TransactionCsvReader reader = TransactionUtils.streamCsvTransactions(new ByteArrayInputStream(PRIMING_CSV))) {
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+            }
+        }
 
-                case "CREATE":
-                    return handleCreate(request, context);
+        SftpSession.preload();
+    }
 
-                case "READ":
-                    return handleRead(request, context);
+    @Override
+    public Object handleRequest(Object input, Context context) {
+        context.getLogger().log("Received request: " + input);
 
-                case "READ_ALL":
-                    return handleReadAll(request, context);
+        if (input instanceof Request request) {
+            return handleRegularRequest(request, context, true);
+        }
+        if (!(input instanceof Map<?, ?> event)) {
+            context.getLogger().log("Could not process request format");
+            return createErrorResponse(400, "Invalid request format");
+        }
 
-                case "READ_BY_CLIENT":
-                    return handleReadByClient(request, context);
+        // Check if this is a health check request to /api/v1/health
+        if ("/api/v1/health".equals(event.get("path"))) {
+            context.getLogger().log("Processing health check request");
+            return handleHealthCheck(new HashMap<>());
+        }
 
-                case "UPDATE":
-                    return handleUpdate(request, context);
+        Request request;
+        try {
+            request = RequestBinder.bind(event);
+        } catch (IOException | IllegalArgumentException e) {
+            context.getLogger().log("Error parsing request body: " + e.getMessage());
+            return createErrorResponse(400, "Error parsing request: " + RequestBinder.describe(e));
+        }
+        if (request == null) {
+            context.getLogger().log("Could not process request format");
+            return createErrorResponse(400, "Invalid request format");
+        }
+        return handleRegularRequest(request, context, !isHttpRequest(event));
+    }
 
-                case "DELETE":
-                    return handleDelete(request, context);
+    // ALB and API Gateway events always carry the HTTP method, request context and body; direct invocations do not
+    private static boolean isHttpRequest(Map<?, ?> event) {
+        return event.containsKey("httpMethod") || event.containsKey("requestContext") || event.containsKey("body");
+    }
+    
+    // Helper method to create error response
+    private Map<String, Object> createErrorResponse(int statusCode, String errorMessage) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", statusCode);
+        response.put("headers", createCorsHeaders());
+        response.put("body", "{\"result\":false,\"errorMessage\":\"" + errorMessage.replace("\"", "\\\"") + "\",\"data\":null}");
+        return response;
+    }
 
-                default:
-                    throw new IllegalArgumentException("Invalid operation: " + request.operation);
+    // Handles the original request format; admin operations are only found for direct invocations
+    private Object handleRegularRequest(Request request, Context context, boolean direct) {
+        Operation operation = null;
+        if (request.operation != null) {
+            operation = OPERATIONS.get(request.operation);
+            if (operation == null && ADMIN_OPERATIONS.containsKey(request.operation)) {
+                if (direct) {
+                    operation = ADMIN_OPERATIONS.get(request.operation);
+                } else {
+                    context.getLogger().log("Refused " + request.operation + ": only available to direct invocations");
+                }
             }
+        }
+        if (operation == null) {
+            context.getLogger().log("Failed to process request: Invalid operation: " + request.operation);
+            return new Response<>(false, "Error: Invalid operation: " + request.operation, null);
+        }
+        try {
+            return operation.handle(this, request, context);
         } catch (Exception e) {
             context.getLogger().log("Failed to process request: " + e.getMessage());
             return new Response<>(false, "Error: " + e.getMessage(), null);
@@ -295,47 +358,30 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
                 throw new IllegalArgumentException("SFTP_TARGET environment variable is not set.");
             }
 
-            String doneDirectory = sftpTarget + "/../.done";
-            String errorDirectory = sftpTarget + "/../.error";
-            
-            // List to collect all processed transactions
-            List<Transaction> allProcessedTransactions = new java.util.ArrayList<>();
-
-            // Establish SFTP connection
-            try (SFTPFacade sftpFacade = new SFTPFacadeImpl()) {
-                sftpFacade.connect();
-                List<String> csvFiles = sftpFacade.listFiles(sftpTarget, "*.csv");
-
-                for (String csvFile : csvFiles) {
-                    try (InputStream inputStream = sftpFacade.downloadFile(sftpTarget + "/" + csvFile)) {
-                        // Parse CSV file
-                        List<Transaction> transactions = TransactionUtils.parseCsvToTransactions(inputStream);
-
-                        // Insert transactions into the database
-                        for (Transaction transaction : transactions) {
-                            Transaction createdTransaction = transactionService.createTransaction(transaction);
-                            allProcessedTransactions.add(createdTransaction);
-                        }
-
-                        // Move file to .done directory
-                        sftpFacade.moveFile(sftpTarget + "/" + csvFile, doneDirectory + "/" + csvFile);
-                    } catch (Exception e) {
-                        context.getLogger().log("Error processing file " + csvFile + ": " + e.getMessage());
-                        // Move file to .error directory
-                        sftpFacade.moveFile(sftpTarget + "/" + csvFile, errorDirectory + "/" + csvFile);
-                    }
-                }
+            IngestionOptions options = new IngestionOptions();
+            options.setIngestMode(request.ingestMode);
+            options.setParallelism(request.parallelism);
+            options.setPipeline(request.pipeline);
+            // Stop starting new batches early enough to record checkpoints and respond before the Lambda times out
+            if (context.getRemainingTimeInMillis() > 0) {
+                options.setDeadline(System.currentTimeMillis() + context.getRemainingTimeInMillis() - INGEST_TIME_RESERVE_MS);
             }
+
+            List<FileIngestionResult> fileResults = ingestionService.ingestDirectory(sftpTarget, options);
+            long processedCount = fileResults.stream().mapToLong(FileIngestionResult::getRowsProcessed).sum();
+            long rejectedCount = fileResults.stream().mapToLong(FileIngestionResult::getRowsRejected).sum();
+            context.getLogger().log("Connection pool after dailyFetch: " + transactionService.getMetrics().get("connectionPool"));
             
             // Create ALB-compatible response
             Map<String, Object> response = new HashMap<>();
             response.put("statusCode", 200);
             response.put("headers", createCorsHeaders());
             
-            // Create a Response object with the processed transactions and convert it to JSON for the body
-            Response<List<Transaction>> responseObj = new Response<>(true, 
-                "Daily fetch completed successfully. Processed " + allProcessedTransactions.size() + " transactions.", 
-                allProcessedTransactions);
+            // Create a Response object with the per-file results and convert it to JSON for the body
+            Response<List<FileIngestionResult>> responseObj = new Response<>(true, 
+                "Daily fetch completed successfully. Processed " + processedCount + " transactions"
+                        + (rejectedCount > 0 ? ", rejected " + rejectedCount + " malformed rows." : "."),
+                fileResults);
             String responseBody = convertToJson(responseObj);
             response.put("body", responseBody);
             
@@ -353,6 +399,82 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
         }
     }
 
+    private Object handleDetachPartitions(Request request, Context context) {
+        if (request.beforeDate == null) {
+            return createErrorResponse(400, "beforeDate is missing");
+        }
+        try {
+            boolean drop = Boolean.TRUE.equals(request.dropTables);
+            List<String> partitions = transactionService.detachPartitionsBefore(request.beforeDate, drop);
+            context.getLogger().log((drop ? "Dropped" : "Detached") + " partitions: " + partitions);
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<List<String>> responseObj = new Response<>(true,
+                    (drop ? "Dropped " : "Detached ") + partitions.size() + " partitions", partitions);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (Exception e) {
+            context.getLogger().log("Error detaching partitions: " + e.getMessage());
+            return createErrorResponse(500, "Failed to detach partitions: " + e.getMessage());
+        }
+    }
+
+    // Creates or upgrades every table this function uses; run once per deploy when SCHEMA_INIT_ON_STARTUP is false
+    private Object handleInitSchema(Request request, Context context) {
+        try {
+            long start = System.currentTimeMillis();
+            transactionService.initializeSchema();
+            ingestionService.initializeSchema();
+            long elapsed = System.currentTimeMillis() - start;
+            context.getLogger().log("Schema initialized in " + elapsed + " ms");
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<Long> responseObj = new Response<>(true, "Schema initialized", elapsed);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (Exception e) {
+            context.getLogger().log("Error initializing schema: " + e.getMessage());
+            return createErrorResponse(500, "Failed to initialize schema: " + e.getMessage());
+        }
+    }
+
+    private Object handleMetrics(Request request, Context context) {
+        try {
+            Map<String, Object> metrics = transactionService.getMetrics();
+            metrics.putAll(ingestionService.getMetrics());
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<Map<String, Object>> responseObj = new Response<>(true, "Metrics retrieved successfully", metrics);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (Exception e) {
+            context.getLogger().log("Error retrieving metrics: " + e.getMessage());
+
+            // Create error response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 500);
+            response.put("headers", createCorsHeaders());
+            response.put("body", "{\"result\":false,\"errorMessage\":\"Failed to retrieve metrics: " 
+                    + e.getMessage().replace("\"", "\\\"") + "\",\"data\":null}");
+            return response;
+        }
+    }
+
     private Object handleCreate(Request request, Context context) {
         try {
             if (!request.transaction.isPresent()) {
@@ -428,6 +550,9 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
     }
 
     private Object handleReadAll(Request request, Context context) {
+        if (request.query != null) {
+            return handleReadPage(request.query, "Transactions page retrieved successfully", context);
+        }
         try {
             List<Transaction> transactions = transactionService.getAllTransactions();
             
@@ -465,6 +590,11 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
                 return response;
             }
 
+            if (request.query != null) {
+                request.query.setClientId(request.transactionId);
+                return handleReadPage(request.query, "Transactions page for client retrieved successfully", context);
+            }
+
             List<Transaction> transactions = transactionService.getTransactionsByClientId(request.transactionId);
             
             // Create ALB-compatible response
@@ -491,6 +621,56 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
         }
     }
     
+    // Totals per day for a client (transactionId carries the client ID, as in READ_BY_CLIENT) from the daily rollup
+    private Object handleReadSummary(Request request, Context context) {
+        try {
+            if (request.transactionId == null) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("statusCode", 400);
+                response.put("headers", createCorsHeaders());
+                response.put("body", "{\"result\":false,\"errorMessage\":\"Client ID is missing\",\"data\":null}");
+                return response;
+            }
+            TransactionQuery query = request.query != null ? request.query : new TransactionQuery();
+            query.setClientId(request.transactionId);
+            TransactionSummary summary = transactionService.getTransactionSummary(query);
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<TransactionSummary> responseObj = new Response<>(true, "Transaction summary retrieved successfully", summary);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (Exception e) {
+            context.getLogger().log("Error retrieving transaction summary: " + e.getMessage());
+            return createErrorResponse(500, "Failed to retrieve transaction summary: " + e.getMessage());
+        }
+    }
+
+    private Object handleReadPage(TransactionQuery query, String message, Context context) {
+        try {
+            TransactionPage page = transactionService.getTransactionPage(query);
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<TransactionPage> responseObj = new Response<>(true, message, page);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(400, e.getMessage());
+        } catch (Exception e) {
+            context.getLogger().log("Error retrieving transactions page: " + e.getMessage());
+            return createErrorResponse(500, "Failed to retrieve transactions: " + e.getMessage());
+        }
+    }
+
     private Object handleUpdate(Request request, Context context) {
         try {
             if (request.transactionId == null) {
@@ -571,10 +751,86 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
         }
     }
 
+    private Object handleCreateBatch(Request request, Context context) {
+        return handleBatch(request.transactions, "Transactions", "Created", transactionService::createTransactionBatch, context);
+    }
+
+    private Object handleUpdateBatch(Request request, Context context) {
+        return handleBatch(request.transactions, "Transactions", "Updated", transactionService::updateTransactionBatch, context);
+    }
+
+    private Object handleDeleteBatch(Request request, Context context) {
+        return handleBatch(request.transactionIds, "Transaction IDs", "Deleted", transactionService::deleteTransactionBatch, context);
+    }
+
+    // Settles matching rows with one conditional UPDATE instead of a read and a full-row update per id
+    private Object handleTransitionStatus(Request request, Context context) {
+        try {
+            StatusTransition transition = new StatusTransition();
+            transition.setIds(request.transactionIds);
+            transition.setClientId(request.clientId);
+            if (request.query != null) {
+                transition.setFromDate(request.query.getFromDate());
+                transition.setToDate(request.query.getToDate());
+            }
+            transition.setFromStatus(request.fromStatus);
+            transition.setToStatus(request.newStatus);
+
+            StatusTransitionResult result = transactionService.transitionStatus(transition);
+            context.getLogger().log("Moved " + result.getUpdated() + " transactions from "
+                    + result.getFromStatus() + " to " + result.getToStatus());
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<StatusTransitionResult> responseObj = new Response<>(true,
+                    "Moved " + result.getUpdated() + " transactions to " + result.getToStatus(), result);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(400, e.getMessage());
+        } catch (Exception e) {
+            context.getLogger().log("Error transitioning transaction status: " + e.getMessage());
+            return createErrorResponse(500, "Failed to transition transaction status: " + e.getMessage());
+        }
+    }
+
+    // Runs a batch operation and reports each item's outcome; only a database failure fails the whole request
+    private <T> Object handleBatch(List<T> items, String itemName, String verb, Function<List<T>, BatchResult> operation,
+            Context context) {
+        if (items == null || items.isEmpty()) {
+            return createErrorResponse(400, itemName + " are missing");
+        }
+        if (items.size() > BATCH_MAX_ITEMS) {
+            return createErrorResponse(400, "At most " + BATCH_MAX_ITEMS + " items are accepted per batch, got " + items.size());
+        }
+        try {
+            BatchResult result = operation.apply(items);
+            context.getLogger().log(verb + " " + result.getSucceeded() + " of " + items.size() + " transactions");
+
+            // Create ALB-compatible response
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", 200);
+            response.put("headers", createCorsHeaders());
+
+            Response<BatchResult> responseObj = new Response<>(true,
+                    verb + " " + result.getSucceeded() + " of " + items.size() + " transactions", result);
+            response.put("body", convertToJson(responseObj));
+
+            return response;
+        } catch (Exception e) {
+            context.getLogger().log("Error in batch operation: " + e.getMessage());
+            return createErrorResponse(500, "Failed to process batch, no changes were made: " + e.getMessage());
+        }
+    }
+
     private Response testSftpConnection(Request request, Context context) {
         context.getLogger().log("Testing SFTP connection...");
 
-        try (SFTPFacade sftpFacade = new SFTPFacadeImpl()) {
+        try (SFTPFacade sftpFacade = fileSource.get()) {
             // Print environment variables for debugging
             String host = System.getenv("SFTP_HOST");
             String username = System.getenv("SFTP_USER");
@@ -613,10 +869,7 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
     // Helper method to convert object to JSON string
     private String convertToJson(Object obj) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            mapper.configure(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-            return mapper.writeValueAsString(obj);
+            return RESPONSE_WRITER.writeValueAsString(obj);
         } catch (Exception e) {
             // Fallback to basic JSON if Jackson fails
             if (obj instanceof Response) {
@@ -636,4 +889,29 @@ public class TransactionHandler implements RequestHandler<Object, Object> {
             return "{}";
         }
     }
+
+    // Stands in for the Lambda context while priming; there is no invocation, so logs are discarded
+    private static class PrimingContext implements Context {
+        private static final LambdaLogger LOGGER = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+            }
+
+            @Override
+            public void log(byte[] message) {
+            }
+        };
+
+        @Override public String getAwsRequestId() { return "priming"; }
+        @Override public String getLogGroupName() { return null; }
+        @Override public String getLogStreamName() { return null; }
+        @Override public String getFunctionName() { return null; }
+        @Override public String getFunctionVersion() { return null; }
+        @Override public String getInvokedFunctionArn() { return null; }
+        @Override public CognitoIdentity getIdentity() { return null; }
+        @Override public ClientContext getClientContext() { return null; }
+        @Override public int getRemainingTimeInMillis() { return 0; }
+        @Override public int getMemoryLimitInMB() { return 0; }
+        @Override public LambdaLogger getLogger() { return LOGGER; }
+    }
 }
@@ -0,0 +1,169 @@
+package com.cs301g2t1.transaction;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.cs301g2t1.transaction.model.TransactionQuery;
+import com.cs301g2t1.transaction.service.TransactionService;
+import com.cs301g2t1.transaction.service.TransactionServiceImpl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Streaming Lambda entry point for export-sized reads.
+ *
+ * READ_ALL and READ_BY_CLIENT without limit, after or any filter are written row by row from a server-side
+ * cursor straight into the ALB response body, so neither a List of transactions nor the full JSON String is
+ * ever held in memory. Those are the reads TransactionHandler answers with every row; anything it answers with
+ * a page (see Request.query) is delegated, as is every other operation, so the response does not depend on
+ * which of the two handlers is deployed.
+ *
+ * Handler: com.cs301g2t1.transaction.TransactionStreamHandler::handleRequest (the transaction Lambda's handler)
+ */
+public class TransactionStreamHandler implements RequestStreamHandler {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionService transactionService = new TransactionServiceImpl();
+    private final TransactionHandler delegate = new TransactionHandler();
+    private final ObjectMapper objectMapper;
+
+    public TransactionStreamHandler() {
+        this.objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        // The generator writes into the response body; closing it must not close the Lambda output stream
+        objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        Map<String, Object> event = objectMapper.readValue(input, Map.class);
+
+        TransactionHandler.Request request;
+        try {
+            request = RequestBinder.bind(event);
+        } catch (IOException | IllegalArgumentException e) {
+            // TransactionHandler answers malformed requests with a 400
+            request = null;
+        }
+
+        String operation = request != null ? request.operation : null;
+        // TransactionHandler sets query for limit, after or any filter, and answers those with a page
+        boolean paged = request != null && request.query != null;
+        if (paged || (!"READ_ALL".equals(operation) && !"READ_BY_CLIENT".equals(operation))) {
+            objectMapper.writeValue(output, delegate.handleRequest(event, context));
+            return;
+        }
+
+        TransactionQuery query = new TransactionQuery();
+        if ("READ_BY_CLIENT".equals(operation)) {
+            if (request.transactionId == null) {
+                writeError(output, 400, "Client ID is missing");
+                return;
+            }
+            query.setClientId(request.transactionId);
+        }
+
+        writeStreamedResponse(output, query, context);
+    }
+
+    private void writeStreamedResponse(OutputStream output, TransactionQuery query, Context context) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write("{\"statusCode\":200,\"headers\":{\"Content-Type\":\"application/json\"},\"body\":\"");
+
+        // The body is itself a JSON document, so it is generated into an escaping writer to form a JSON string
+        long rows;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(new JsonStringWriter(writer))) {
+            generator.writeStartObject();
+            generator.writeBooleanField("result", true);
+            generator.writeStringField("errorMessage", "Transactions streamed successfully");
+            generator.writeArrayFieldStart("data");
+            rows = transactionService.streamTransactions(query, transaction -> {
+                try {
+                    generator.writeObject(transaction);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (RuntimeException e) {
+            // Headers are already written, so a failure here can only truncate the response
+            context.getLogger().log("Error while streaming transactions: " + e.getMessage());
+            throw e;
+        }
+
+        writer.write("\"}");
+        writer.flush();
+        context.getLogger().log("Streamed " + rows + " transactions");
+    }
+
+    private void writeError(OutputStream output, int statusCode, String errorMessage) throws IOException {
+        Map<String, Object> response = Map.of(
+                "statusCode", statusCode,
+                "headers", Map.of("Content-Type", "application/json"),
+                "body", "{\"result\":false,\"errorMessage\":\"" + errorMessage.replace("\"", "\\\"") + "\",\"data\":null}");
+        objectMapper.writeValue(output, response);
+    }
+
+    // Escapes everything written to it as the contents of a JSON string literal
+    private static class JsonStringWriter extends Writer {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final Writer out;
+
+        JsonStringWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            int runStart = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                char c = buffer[i];
+                if (c != '"' && c != '\\' && c >= 0x20) {
+                    continue;
+                }
+                out.write(buffer, runStart, i - runStart);
+                runStart = i + 1;
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        out.write("\\u00");
+                        out.write(HEX[c >> 4]);
+                        out.write(HEX[c & 0xF]);
+                    }
+                }
+            }
+            out.write(buffer, runStart, end - runStart);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * Outcome of one item of a CREATE_BATCH, UPDATE_BATCH or DELETE_BATCH request.
+ */
+@Data
+public class BatchItemResult {
+    // Position of the item in the request
+    private int index;
+    private Long id;
+    private boolean success;
+    // The row as saved; null for deletes and failed items
+    private Transaction transaction;
+    private String errorMessage;
+}
@@ -0,0 +1,16 @@
+package com.cs301g2t1.transaction.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Per-item outcomes of a batch operation, in request order. The successful items were written in one database
+ * transaction; failed items (invalid, not found or superseded by a later item with the same id) were skipped.
+ */
+@Data
+public class BatchResult {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> items;
+}
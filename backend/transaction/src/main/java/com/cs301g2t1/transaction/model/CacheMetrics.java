@@ -0,0 +1,17 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * Point-in-time snapshot of an in-process cache.
+ */
+@Data
+public class CacheMetrics {
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    // Entries dropped to stay within maxSize; expired and invalidated entries are not counted
+    private long evictions;
+    private double hitRate;
+}
@@ -0,0 +1,13 @@
+package com.cs301g2t1.transaction.model;
+
+/**
+ * Progress of a CSV file recorded in ingestion_checkpoints.
+ */
+public enum CheckpointStatus {
+    // Some batches may be committed; a rerun resumes after the last one
+    IN_PROGRESS,
+    // Every row is committed; only the move to .done may still be outstanding
+    COMPLETED,
+    // The file was moved to .error
+    FAILED;
+}
@@ -0,0 +1,17 @@
+package com.cs301g2t1.transaction.model;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+/**
+ * Count and total amount of one client's transactions for a single day, type and status.
+ */
+@Data
+public class DailyTransactionRollup {
+    private LocalDate date;
+    private TransactionType transactionType;
+    private TransactionStatus status;
+    private long count;
+    private double totalAmount;
+}
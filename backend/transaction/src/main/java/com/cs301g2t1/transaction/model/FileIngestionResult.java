@@ -0,0 +1,29 @@
+package com.cs301g2t1.transaction.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Outcome of ingesting a single CSV file during dailyFetch.
+ */
+@Data
+public class FileIngestionResult {
+    private String fileName;
+    private IngestMode ingestMode;
+    private boolean success;
+    private long fileSize;
+    // Rows committed by this run; rows committed by earlier runs of the same file are in resumedFromRow
+    private long rowsProcessed;
+    private long resumedFromRow;
+    // Malformed rows skipped by this run; they are listed with line numbers and reasons in rejectsFile
+    private long rowsRejected;
+    private String rejectsFile;
+    // The first few rejection reasons, e.g. "Line 12: Invalid status: X"
+    private List<String> rejectedRowSamples;
+    // Stopped at the time budget; the file stays in place and the next run continues from its checkpoint
+    private boolean paused;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private String errorMessage;
+}
@@ -0,0 +1,23 @@
+package com.cs301g2t1.transaction.model;
+
+import java.time.Instant;
+
+import lombok.Data;
+
+/**
+ * What earlier polls of a source directory saw of one file. The watermark applies to one version of the file,
+ * identified by name, size and modification time; a file that changes starts a new version.
+ */
+@Data
+public class FileWatermark {
+    private String directory;
+    private String fileName;
+    private long fileSize;
+    // Seconds since the epoch, as reported by the SFTP server
+    private long modifiedTime;
+    // When a poll first saw this version of the file
+    private Instant firstSeenAt;
+    private Instant lastSeenAt;
+    // This version has been loaded and moved out, or skipped as already loaded
+    private boolean ingested;
+}
@@ -0,0 +1,11 @@
+package com.cs301g2t1.transaction.model;
+
+/**
+ * How dailyFetch persists the rows of a CSV file.
+ */
+public enum IngestMode {
+    // Batched INSERT/UPDATE through TransactionService.createTransactions
+    BATCH,
+    // COPY FROM STDIN into a staging table followed by a set-based merge
+    COPY;
+}
@@ -0,0 +1,26 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * How far ingestion of one remote file got. A checkpoint only applies to the file it was taken from,
+ * identified by path, size and modification time.
+ */
+@Data
+public class IngestionCheckpoint {
+    private String filePath;
+    private long fileSize;
+    // Seconds since the epoch, as reported by the SFTP server
+    private long modifiedTime;
+    // Header row of the file, needed to parse rows when resuming part way through
+    private String header;
+    private long rowsCommitted;
+    // Malformed rows already written to the file's rejects file
+    private long rowsRejected;
+    // Offset just after the last committed row; a resumed read starts here
+    private long byteOffset;
+    // Line number of the last committed row (the header is line 1)
+    private long lineNumber;
+    private CheckpointStatus status;
+    private String errorMessage;
+}
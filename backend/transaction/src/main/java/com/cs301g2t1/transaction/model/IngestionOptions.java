@@ -0,0 +1,18 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * Per-request overrides for dailyFetch; null fields fall back to the INGEST_* environment defaults.
+ */
+@Data
+public class IngestionOptions {
+    // Forces BATCH or COPY for every file; null picks per file by size
+    private IngestMode ingestMode;
+    // Number of files processed at once by the sequential/parallel path
+    private Integer parallelism;
+    // Runs download, parse and persist as overlapping pipeline stages
+    private Boolean pipeline;
+    // Epoch millis after which no new batch is started; unfinished files resume from their checkpoint next run
+    private Long deadline;
+}
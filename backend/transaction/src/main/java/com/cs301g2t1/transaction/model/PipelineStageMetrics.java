@@ -0,0 +1,23 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * Timings and queue occupancy for one stage of the pipelined ingestion, summed over all of its workers.
+ */
+@Data
+public class PipelineStageMetrics {
+    private String stage;
+    private int workers;
+    private long itemsProcessed;
+
+    // Time spent doing work, waiting for input, and blocked handing results to a full downstream queue
+    private long busyMillis;
+    private long inputWaitMillis;
+    private long outputBlockedMillis;
+
+    // Occupancy of the queue this stage writes to, sampled on every put
+    private int queueCapacity;
+    private int maxQueueDepth;
+    private double averageQueueDepth;
+}
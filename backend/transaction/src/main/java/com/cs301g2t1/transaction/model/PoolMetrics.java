@@ -0,0 +1,26 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * Point-in-time snapshot of the JDBC connection pool.
+ */
+@Data
+public class PoolMetrics {
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int pendingThreads;
+    private int minConnections;
+    private int maxConnections;
+
+    // Time spent waiting to borrow a connection from the pool
+    private long acquireCount;
+    private double averageWaitMillis;
+    private double maxWaitMillis;
+
+    // Time a connection was held by the caller before being returned
+    private double averageUsageMillis;
+    private long connectionTimeouts;
+    private long connectionsCreated;
+}
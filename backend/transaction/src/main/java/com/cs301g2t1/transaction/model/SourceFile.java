@@ -0,0 +1,14 @@
+package com.cs301g2t1.transaction.model;
+
+import lombok.Data;
+
+/**
+ * A file in an ingestion source directory, with the attributes returned by the directory listing.
+ */
+@Data
+public class SourceFile {
+    private String name;
+    private long size;
+    // Seconds since the epoch, as reported by the SFTP server
+    private long modifiedTime;
+}
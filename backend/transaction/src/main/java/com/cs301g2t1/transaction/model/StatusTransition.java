@@ -0,0 +1,21 @@
+package com.cs301g2t1.transaction.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * A set-based status change: every row in fromStatus that matches all of the given filters moves to toStatus.
+ * At least one of ids, clientId, fromDate or toDate must be set.
+ */
+@Data
+public class StatusTransition {
+    private List<Long> ids;
+    private Long clientId;
+    // Inclusive date range; either end may be null
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private TransactionStatus fromStatus = TransactionStatus.PENDING;
+    private TransactionStatus toStatus;
+}
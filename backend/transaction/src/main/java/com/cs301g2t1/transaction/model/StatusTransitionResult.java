@@ -0,0 +1,18 @@
+package com.cs301g2t1.transaction.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Outcome of a TRANSITION_STATUS request.
+ */
+@Data
+public class StatusTransitionResult {
+    private TransactionStatus fromStatus;
+    private TransactionStatus toStatus;
+    private int updated;
+    // Ids of the rows moved; cut at STATUS_TRANSITION_MAX_IDS, in which case idsTruncated is set
+    private List<Long> ids;
+    private boolean idsTruncated;
+}
@@ -0,0 +1,16 @@
+package com.cs301g2t1.transaction.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * One page of a keyset-paginated transaction listing.
+ */
+@Data
+public class TransactionPage {
+    private List<Transaction> items;
+    // Pass back as "after" to fetch the next page; null when this is the last page
+    private String nextCursor;
+    private int limit;
+}
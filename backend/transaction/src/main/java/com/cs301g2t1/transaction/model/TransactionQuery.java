@@ -0,0 +1,23 @@
+package com.cs301g2t1.transaction.model;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+/**
+ * Filters and paging position for a keyset-paginated transaction listing, newest first.
+ */
+@Data
+public class TransactionQuery {
+    // Restricts the listing to one client; null lists every client
+    private Long clientId;
+    // Inclusive date range; either end may be null
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private TransactionStatus status;
+    private TransactionType transactionType;
+
+    private Integer limit;
+    // Opaque cursor taken from the previous page's nextCursor; null starts from the newest row
+    private String after;
+}
@@ -0,0 +1,25 @@
+package com.cs301g2t1.transaction.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Deposit and withdrawal totals for a client over a date range, answered from the daily rollup. The totals
+ * count COMPLETED transactions only; the daily breakdown lists every status.
+ */
+@Data
+public class TransactionSummary {
+    private Long clientId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    private long depositCount;
+    private double depositTotal;
+    private long withdrawalCount;
+    private double withdrawalTotal;
+
+    // Per-day breakdown by type and status, oldest first
+    private List<DailyTransactionRollup> daily;
+}
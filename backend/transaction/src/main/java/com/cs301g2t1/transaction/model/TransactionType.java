@@ -1,5 +1,21 @@
 package com.cs301g2t1.transaction.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+
 public enum TransactionType {
     D, W;
-}
\ No newline at end of file
+
+    /**
+     * Reads a type from a request, accepting the DEPOSIT/WITHDRAWAL spellings as well as the codes, in any case.
+     */
+    @JsonCreator
+    public static TransactionType fromValue(String value) {
+        if ("DEPOSIT".equalsIgnoreCase(value)) {
+            return D;
+        }
+        if ("WITHDRAWAL".equalsIgnoreCase(value)) {
+            return W;
+        }
+        return valueOf(value.toUpperCase());
+    }
+}
@@ -0,0 +1,13 @@
+package com.cs301g2t1.transaction.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Called by the bulk save paths just before each batch is committed, on the connection holding the batch's
+ * transaction. Anything written through that connection commits or rolls back together with the batch.
+ */
+@FunctionalInterface
+public interface BatchCommitListener {
+    void beforeCommit(Connection connection, long rows) throws SQLException;
+}
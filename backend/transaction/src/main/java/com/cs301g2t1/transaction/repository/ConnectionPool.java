@@ -0,0 +1,183 @@
+package com.cs301g2t1.transaction.repository;
+
+import com.cs301g2t1.transaction.model.PoolMetrics;
+import com.cs301g2t1.transaction.utils.EnvUtils;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Container-scoped JDBC connection pool shared by all repository calls.
+ *
+ * The pool is created on first use and lives for the life of the Lambda container, so warm
+ * invocations reuse already-authenticated connections instead of paying a TCP + TLS + auth
+ * handshake per query. Sizing, validation and leak detection are configured through environment
+ * variables (see .env.example).
+ */
+public class ConnectionPool {
+
+    private static final String JDBC_URL = System.getenv("JDBC_URL");
+    private static final String JDBC_USER = System.getenv("JDBC_USER");
+    private static final String JDBC_PASSWORD = System.getenv("JDBC_PASSWORD");
+
+    private static ConnectionPool instance;
+
+    private final HikariDataSource dataSource;
+    private final MetricsTracker metricsTracker = new MetricsTracker();
+    private volatile PoolStats poolStats;
+
+    private ConnectionPool() {
+        // Hikari skips the liveness check for connections used within this window; 0 validates on every borrow.
+        // Must be set before the pool class is initialised.
+        System.setProperty("com.zaxxer.hikari.aliveBypassWindowMs",
+                String.valueOf(EnvUtils.getLong("DB_POOL_VALIDATION_BYPASS_MS", 0)));
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("transaction-pool");
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(JDBC_URL);
+        config.setUsername(JDBC_USER);
+        config.setPassword(JDBC_PASSWORD);
+        config.setMinimumIdle(EnvUtils.getInt("DB_POOL_MIN_IDLE", 1));
+        config.setMaximumPoolSize(EnvUtils.getInt("DB_POOL_MAX_SIZE", 5));
+        config.setConnectionTimeout(EnvUtils.getLong("DB_POOL_CONNECTION_TIMEOUT_MS", 10000));
+        config.setValidationTimeout(EnvUtils.getLong("DB_POOL_VALIDATION_TIMEOUT_MS", 3000));
+        config.setLeakDetectionThreshold(EnvUtils.getLong("DB_POOL_LEAK_DETECTION_MS", 60000));
+        config.setMaxLifetime(EnvUtils.getLong("DB_POOL_MAX_LIFETIME_MS", 1800000));
+        config.setIdleTimeout(EnvUtils.getLong("DB_POOL_IDLE_TIMEOUT_MS", 600000));
+        // Do not fail container start-up if the database is briefly unreachable; the first borrow will retry
+        config.setInitializationFailTimeout(-1);
+        // Lets the pool be emptied and held shut while a SnapStart snapshot is taken (see suspend)
+        config.setAllowPoolSuspension(true);
+        config.addDataSourceProperty("ApplicationName", "transaction-lambda");
+        config.addDataSourceProperty("tcpKeepAlive", "true");
+        // Let the driver collapse batched INSERTs into multi-row statements
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        config.setMetricsTrackerFactory(new MetricsTrackerFactory() {
+            @Override
+            public IMetricsTracker create(String poolName, PoolStats stats) {
+                poolStats = stats;
+                return metricsTracker;
+            }
+        });
+
+        this.dataSource = new HikariDataSource(config);
+    }
+
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null) {
+            instance = new ConnectionPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the returned connection hands it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    // Most connections the pool opens at once (DB_POOL_MAX_SIZE)
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    public PoolMetrics getMetrics() {
+        PoolMetrics metrics = new PoolMetrics();
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            metrics.setActiveConnections(stats.getActiveConnections());
+            metrics.setIdleConnections(stats.getIdleConnections());
+            metrics.setTotalConnections(stats.getTotalConnections());
+            metrics.setPendingThreads(stats.getPendingThreads());
+            metrics.setMinConnections(stats.getMinConnections());
+            metrics.setMaxConnections(stats.getMaxConnections());
+        }
+        metricsTracker.fill(metrics);
+        return metrics;
+    }
+
+    /**
+     * Closes every idle connection and blocks new borrows until resume, so no socket is captured in a
+     * snapshot of this container. Repositories keep their reference to the pool across the snapshot.
+     */
+    public void suspend() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        pool.suspendPool();
+        pool.softEvictConnections();
+    }
+
+    // Lets borrowers through again and starts refilling the pool to its minimum idle size in the background
+    public void resume() {
+        dataSource.getHikariPoolMXBean().resumePool();
+    }
+
+    /**
+     * Closes every pooled connection. The next call to getInstance() builds a fresh pool.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.dataSource.close();
+            instance = null;
+        }
+    }
+
+    // Collects borrow wait and usage times reported by Hikari
+    private static class MetricsTracker implements IMetricsTracker {
+        private final LongAdder acquireCount = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder usageCount = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder created = new LongAdder();
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireCount.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageCount.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            created.increment();
+        }
+
+        void fill(PoolMetrics metrics) {
+            long acquired = acquireCount.sum();
+            long used = usageCount.sum();
+            metrics.setAcquireCount(acquired);
+            metrics.setAverageWaitMillis(acquired == 0 ? 0 : nanosToMillis(acquireNanos.sum()) / acquired);
+            metrics.setMaxWaitMillis(nanosToMillis(maxAcquireNanos.get()));
+            metrics.setAverageUsageMillis(used == 0 ? 0 : (double) usageMillis.sum() / used);
+            metrics.setConnectionTimeouts(timeouts.sum());
+            metrics.setConnectionsCreated(created.sum());
+        }
+
+        private static double nanosToMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.cs301g2t1.transaction.repository;
+
+import com.cs301g2t1.transaction.model.CheckpointStatus;
+import com.cs301g2t1.transaction.model.IngestionCheckpoint;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IngestionCheckpointRepository {
+    // Creates ingestion_checkpoints if it does not exist; safe to run repeatedly
+    void initializeSchema();
+    Optional<IngestionCheckpoint> findByFilePath(String filePath);
+    void save(IngestionCheckpoint checkpoint);
+    // Saves within the caller's transaction, e.g. from a BatchCommitListener
+    void save(Connection connection, IngestionCheckpoint checkpoint);
+    void updateStatus(String filePath, CheckpointStatus status, String errorMessage);
+    // Removes finished checkpoints last updated before cutoff, returning how many were removed
+    int deleteFinishedBefore(Instant cutoff);
+}
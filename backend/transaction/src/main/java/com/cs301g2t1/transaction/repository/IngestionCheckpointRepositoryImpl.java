@@ -0,0 +1,146 @@
+package com.cs301g2t1.transaction.repository;
+
+import com.cs301g2t1.transaction.model.CheckpointStatus;
+import com.cs301g2t1.transaction.model.IngestionCheckpoint;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.Optional;
+
+public class IngestionCheckpointRepositoryImpl implements IngestionCheckpointRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO ingestion_checkpoints "
+        + "(file_path, file_size, modified_time, header, rows_committed, rows_rejected, byte_offset, line_number, status, "
+        + "error_message, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now()) "
+        + "ON CONFLICT (file_path) DO UPDATE SET file_size = EXCLUDED.file_size, modified_time = EXCLUDED.modified_time, "
+        + "header = EXCLUDED.header, rows_committed = EXCLUDED.rows_committed, rows_rejected = EXCLUDED.rows_rejected, "
+        + "byte_offset = EXCLUDED.byte_offset, "
+        + "line_number = EXCLUDED.line_number, status = EXCLUDED.status, error_message = EXCLUDED.error_message, "
+        + "updated_at = EXCLUDED.updated_at";
+
+    private static IngestionCheckpointRepositoryImpl instance;
+
+    private final ConnectionPool connectionPool = ConnectionPool.getInstance();
+
+    private IngestionCheckpointRepositoryImpl() {
+        if (TransactionRepositoryImpl.SCHEMA_INIT_ON_STARTUP) {
+            initializeSchema();
+        }
+    }
+
+    @Override
+    public void initializeSchema() {
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ingestion_checkpoints ("
+                + "file_path TEXT PRIMARY KEY, "
+                + "file_size BIGINT NOT NULL, "
+                + "modified_time BIGINT NOT NULL, "
+                + "header TEXT, "
+                + "rows_committed BIGINT NOT NULL, "
+                + "rows_rejected BIGINT NOT NULL DEFAULT 0, "
+                + "byte_offset BIGINT NOT NULL, "
+                + "line_number BIGINT NOT NULL, "
+                + "status VARCHAR(20) NOT NULL, "
+                + "error_message TEXT, "
+                + "updated_at TIMESTAMPTZ NOT NULL)");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize ingestion checkpoints: " + e.getMessage(), e);
+        }
+    }
+
+    public static synchronized IngestionCheckpointRepositoryImpl getInstance() {
+        if (instance == null) {
+            instance = new IngestionCheckpointRepositoryImpl();
+        }
+        return instance;
+    }
+
+    @Override
+    public Optional<IngestionCheckpoint> findByFilePath(String filePath) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT * FROM ingestion_checkpoints WHERE file_path = ?")) {
+
+            statement.setString(1, filePath);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(mapRowToCheckpoint(resultSet)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch ingestion checkpoint", e);
+        }
+    }
+
+    @Override
+    public void save(IngestionCheckpoint checkpoint) {
+        try (Connection connection = connectionPool.getConnection()) {
+            save(connection, checkpoint);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save ingestion checkpoint", e);
+        }
+    }
+
+    @Override
+    public void save(Connection connection, IngestionCheckpoint checkpoint) {
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+            statement.setString(1, checkpoint.getFilePath());
+            statement.setLong(2, checkpoint.getFileSize());
+            statement.setLong(3, checkpoint.getModifiedTime());
+            statement.setString(4, checkpoint.getHeader());
+            statement.setLong(5, checkpoint.getRowsCommitted());
+            statement.setLong(6, checkpoint.getRowsRejected());
+            statement.setLong(7, checkpoint.getByteOffset());
+            statement.setLong(8, checkpoint.getLineNumber());
+            statement.setString(9, checkpoint.getStatus().name());
+            statement.setString(10, checkpoint.getErrorMessage());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save ingestion checkpoint", e);
+        }
+    }
+
+    @Override
+    public void updateStatus(String filePath, CheckpointStatus status, String errorMessage) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE ingestion_checkpoints SET status = ?, error_message = ?, updated_at = now() WHERE file_path = ?")) {
+
+            statement.setString(1, status.name());
+            statement.setString(2, errorMessage);
+            statement.setString(3, filePath);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update ingestion checkpoint", e);
+        }
+    }
+
+    @Override
+    public int deleteFinishedBefore(Instant cutoff) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM ingestion_checkpoints WHERE status <> ? AND updated_at < ?")) {
+
+            statement.setString(1, CheckpointStatus.IN_PROGRESS.name());
+            statement.setTimestamp(2, Timestamp.from(cutoff));
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete ingestion checkpoints", e);
+        }
+    }
+
+    private IngestionCheckpoint mapRowToCheckpoint(ResultSet resultSet) throws SQLException {
+        IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+        checkpoint.setFilePath(resultSet.getString("file_path"));
+        checkpoint.setFileSize(resultSet.getLong("file_size"));
+        checkpoint.setModifiedTime(resultSet.getLong("modified_time"));
+        checkpoint.setHeader(resultSet.getString("header"));
+        checkpoint.setRowsCommitted(resultSet.getLong("rows_committed"));
+        checkpoint.setRowsRejected(resultSet.getLong("rows_rejected"));
+        checkpoint.setByteOffset(resultSet.getLong("byte_offset"));
+        checkpoint.setLineNumber(resultSet.getLong("line_number"));
+        checkpoint.setStatus(CheckpointStatus.valueOf(resultSet.getString("status")));
+        checkpoint.setErrorMessage(resultSet.getString("error_message"));
+        return checkpoint;
+    }
+}
@@ -0,0 +1,30 @@
+package com.cs301g2t1.transaction.repository;
+
+import com.cs301g2t1.transaction.model.FileWatermark;
+import com.cs301g2t1.transaction.model.SourceFile;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface IngestionWatermarkRepository {
+
+    // Held for the length of one poll of a directory; closing it lets the next poll in
+    interface DirectoryLock extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    // Creates or upgrades ingestion_file_watermarks; safe to run repeatedly
+    void initializeSchema();
+    // Empty if another container is already polling the directory
+    Optional<DirectoryLock> tryLockDirectory(String directory);
+    // Watermarks recorded for the directory, keyed by file name
+    Map<String, FileWatermark> findByDirectory(String directory);
+    // Records the files one poll listed; a file whose size or modification time changed starts a new version
+    void recordSeen(String directory, Collection<SourceFile> files, Instant seenAt);
+    // Marks this version of the file as ingested, so later polls leave it alone
+    void markIngested(String directory, SourceFile file);
+    // Removes watermarks of files no poll has listed since cutoff, returning how many were removed
+    int deleteNotSeenSince(Instant cutoff);
+}
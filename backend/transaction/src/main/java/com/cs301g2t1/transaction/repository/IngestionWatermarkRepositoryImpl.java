@@ -0,0 +1,211 @@
+package com.cs301g2t1.transaction.repository;
+
+import com.cs301g2t1.transaction.model.FileWatermark;
+import com.cs301g2t1.transaction.model.SourceFile;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class IngestionWatermarkRepositoryImpl implements IngestionWatermarkRepository {
+
+    // First key of the session advisory lock taken per polled directory; the second is a hash of the directory
+    private static final int POLL_LOCK_KEY = 0x696e6765;
+
+    // An unchanged file keeps its first sighting and ingested flag; a changed one starts over as a new version
+    private static final String RECORD_SEEN_SQL = "INSERT INTO ingestion_file_watermarks AS w "
+        + "(directory, file_name, file_size, modified_time, first_seen_at, last_seen_at, ingested) "
+        + "SELECT ?, f.file_name, f.file_size, f.modified_time, ?, ?, FALSE "
+        + "FROM unnest(?::text[], ?::bigint[], ?::bigint[]) AS f(file_name, file_size, modified_time) "
+        + "ON CONFLICT (directory, file_name) DO UPDATE SET last_seen_at = EXCLUDED.last_seen_at, "
+        + "first_seen_at = CASE WHEN w.file_size = EXCLUDED.file_size AND w.modified_time = EXCLUDED.modified_time "
+        + "THEN w.first_seen_at ELSE EXCLUDED.first_seen_at END, "
+        + "ingested = w.ingested AND w.file_size = EXCLUDED.file_size AND w.modified_time = EXCLUDED.modified_time, "
+        + "file_size = EXCLUDED.file_size, modified_time = EXCLUDED.modified_time";
+
+    private static IngestionWatermarkRepositoryImpl instance;
+
+    private final ConnectionPool connectionPool = ConnectionPool.getInstance();
+
+    private IngestionWatermarkRepositoryImpl() {
+        if (TransactionRepositoryImpl.SCHEMA_INIT_ON_STARTUP) {
+            initializeSchema();
+        }
+    }
+
+    @Override
+    public void initializeSchema() {
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ingestion_file_watermarks ("
+                + "directory TEXT NOT NULL, "
+                + "file_name TEXT NOT NULL, "
+                + "file_size BIGINT NOT NULL, "
+                + "modified_time BIGINT NOT NULL, "
+                + "first_seen_at TIMESTAMPTZ NOT NULL, "
+                + "last_seen_at TIMESTAMPTZ NOT NULL, "
+                + "ingested BOOLEAN NOT NULL DEFAULT FALSE, "
+                + "PRIMARY KEY (directory, file_name))");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize ingestion watermarks: " + e.getMessage(), e);
+        }
+    }
+
+    public static synchronized IngestionWatermarkRepositoryImpl getInstance() {
+        if (instance == null) {
+            instance = new IngestionWatermarkRepositoryImpl();
+        }
+        return instance;
+    }
+
+    /**
+     * Takes a session-level advisory lock on the directory, holding one pooled connection until the lock is closed.
+     * If the container dies mid-poll its connection drops and Postgres releases the lock.
+     */
+    @Override
+    public Optional<DirectoryLock> tryLockDirectory(String directory) {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pg_try_advisory_lock(" + POLL_LOCK_KEY + ", hashtext(?))")) {
+                statement.setString(1, directory);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    if (!resultSet.getBoolean(1)) {
+                        connection.close();
+                        return Optional.empty();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new RuntimeException("Failed to lock ingestion directory", e);
+        }
+        Connection lockConnection = connection;
+        return Optional.of(() -> unlock(lockConnection, directory));
+    }
+
+    // A pooled connection must not go back to the pool still holding the lock, so it is discarded if unlocking fails
+    private static void unlock(Connection connection, String directory) {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_advisory_unlock(" + POLL_LOCK_KEY + ", hashtext(?))")) {
+            statement.setString(1, directory);
+            statement.execute();
+        } catch (SQLException e) {
+            System.out.println("Failed to unlock ingestion directory " + directory + ": " + e.getMessage());
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException abortError) {
+                System.out.println("Failed to discard locked connection: " + abortError.getMessage());
+            }
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @Override
+    public Map<String, FileWatermark> findByDirectory(String directory) {
+        Map<String, FileWatermark> watermarks = new HashMap<>();
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT * FROM ingestion_file_watermarks WHERE directory = ?")) {
+
+            statement.setString(1, directory);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    FileWatermark watermark = mapRowToWatermark(resultSet);
+                    watermarks.put(watermark.getFileName(), watermark);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch ingestion watermarks", e);
+        }
+        return watermarks;
+    }
+
+    @Override
+    public void recordSeen(String directory, Collection<SourceFile> files, Instant seenAt) {
+        if (files.isEmpty()) {
+            return;
+        }
+        String[] names = new String[files.size()];
+        Long[] sizes = new Long[files.size()];
+        Long[] modifiedTimes = new Long[files.size()];
+        int i = 0;
+        for (SourceFile file : files) {
+            names[i] = file.getName();
+            sizes[i] = file.getSize();
+            modifiedTimes[i] = file.getModifiedTime();
+            i++;
+        }
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(RECORD_SEEN_SQL)) {
+
+            statement.setString(1, directory);
+            statement.setTimestamp(2, Timestamp.from(seenAt));
+            statement.setTimestamp(3, Timestamp.from(seenAt));
+            statement.setArray(4, connection.createArrayOf("text", names));
+            statement.setArray(5, connection.createArrayOf("bigint", sizes));
+            statement.setArray(6, connection.createArrayOf("bigint", modifiedTimes));
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record ingestion watermarks", e);
+        }
+    }
+
+    @Override
+    public void markIngested(String directory, SourceFile file) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE ingestion_file_watermarks SET ingested = TRUE "
+                         + "WHERE directory = ? AND file_name = ? AND file_size = ? AND modified_time = ?")) {
+
+            statement.setString(1, directory);
+            statement.setString(2, file.getName());
+            statement.setLong(3, file.getSize());
+            statement.setLong(4, file.getModifiedTime());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update ingestion watermark", e);
+        }
+    }
+
+    @Override
+    public int deleteNotSeenSince(Instant cutoff) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM ingestion_file_watermarks WHERE last_seen_at < ?")) {
+
+            statement.setTimestamp(1, Timestamp.from(cutoff));
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete ingestion watermarks", e);
+        }
+    }
+
+    private FileWatermark mapRowToWatermark(ResultSet resultSet) throws SQLException {
+        FileWatermark watermark = new FileWatermark();
+        watermark.setDirectory(resultSet.getString("directory"));
+        watermark.setFileName(resultSet.getString("file_name"));
+        watermark.setFileSize(resultSet.getLong("file_size"));
+        watermark.setModifiedTime(resultSet.getLong("modified_time"));
+        watermark.setFirstSeenAt(resultSet.getTimestamp("first_seen_at").toInstant());
+        watermark.setLastSeenAt(resultSet.getTimestamp("last_seen_at").toInstant());
+        watermark.setIngested(resultSet.getBoolean("ingested"));
+        return watermark;
+    }
+}
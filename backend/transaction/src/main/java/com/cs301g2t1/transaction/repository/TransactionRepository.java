@@ -1,14 +1,48 @@
 package com.cs301g2t1.transaction.repository;
 
+import com.cs301g2t1.transaction.model.DailyTransactionRollup;
+import com.cs301g2t1.transaction.model.StatusTransition;
 import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionQuery;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TransactionRepository {
+    // Creates or upgrades the table, indexes, partitions and rollup triggers; safe to run repeatedly
+    void initializeSchema();
+    // Forgets the table layout read from the catalog, so it is read again on next use
+    void resetLayout();
     List<Transaction> findAll();
     Optional<Transaction> findById(Long id);
+    // Up to limit rows matching the query, newest first, strictly after (afterDate, afterId) when both are set
+    List<Transaction> findPage(TransactionQuery query, LocalDate afterDate, Long afterId, int limit);
+    // Passes every row matching the query's filters to action, newest first, without holding them in memory
+    long forEach(TransactionQuery query, Consumer<Transaction> action);
+    // Per-day totals from transaction_daily_rollup matching the query's filters, oldest first
+    List<DailyTransactionRollup> findDailyRollup(TransactionQuery query);
     List<Transaction> findAllByClientId(Long clientId);
     Transaction save(Transaction transaction);
+    Optional<Transaction> update(Transaction transaction);
+    List<Transaction> saveAll(List<Transaction> transactions);
+    long saveAll(Iterator<Transaction> transactions);
+    long copyAll(Iterator<Transaction> transactions);
+    // As above, calling listener inside each batch's transaction just before it commits
+    long saveAll(Iterator<Transaction> transactions, BatchCommitListener listener);
+    long copyAll(Iterator<Transaction> transactions, BatchCommitListener listener);
+    // Saves every transaction in a single database transaction, however many there are; rows with an id are upserted
+    List<Transaction> saveBatch(List<Transaction> transactions);
+    // Updates the rows that exist in one statement and returns them as updated; ids must be distinct
+    List<Transaction> updateAll(List<Transaction> transactions);
+    // Deletes the rows that exist in one statement and returns their ids
+    List<Long> deleteAllById(List<Long> ids);
+    // Moves every row matching the transition's filters and current status to its new status; returns their ids
+    List<Long> updateStatus(StatusTransition transition);
     void deleteById(Long id);
     boolean existsById(Long id);
+    // Monthly partition maintenance; both return the affected partition names and do nothing on an unpartitioned table
+    List<String> ensurePartitions();
+    List<String> detachPartitionsBefore(LocalDate cutoff, boolean drop);
 }
\ No newline at end of file
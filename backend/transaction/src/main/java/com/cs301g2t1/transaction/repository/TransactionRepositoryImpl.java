@@ -1,52 +1,386 @@
 package com.cs301g2t1.transaction.repository;
 
+import com.cs301g2t1.transaction.model.DailyTransactionRollup;
+import com.cs301g2t1.transaction.model.StatusTransition;
 import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionQuery;
 import com.cs301g2t1.transaction.model.TransactionStatus;
 import com.cs301g2t1.transaction.model.TransactionType;
+import com.cs301g2t1.transaction.utils.EnvUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class TransactionRepositoryImpl implements TransactionRepository {
 
-    private static final String JDBC_URL = System.getenv("JDBC_URL");
-    private static final String JDBC_USER = System.getenv("JDBC_USER");
-    private static final String JDBC_PASSWORD = System.getenv("JDBC_PASSWORD");
+    // Number of rows written per JDBC batch and per database commit in saveAll
+    private static final int BATCH_SIZE = EnvUtils.getInt("INGEST_BATCH_SIZE", 1000);
+    // Rows per commit when copyAll is checkpointed; the COPY merge is cheap per row, so chunks can be large
+    private static final long COPY_COMMIT_ROWS = EnvUtils.getLong("INGEST_COPY_COMMIT_ROWS", 100_000);
+
+    // Bytes buffered client-side before each write to the COPY stream
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // Rows fetched per round trip when streaming a result set to the caller
+    private static final int STREAM_FETCH_SIZE = EnvUtils.getInt("STREAM_FETCH_SIZE", 1000);
+
+    private static final String UPSERT_ASSIGNMENTS = "client_id = EXCLUDED.client_id, "
+        + "transaction_type = EXCLUDED.transaction_type, amount = EXCLUDED.amount, "
+        + "date = EXCLUDED.date, status = EXCLUDED.status";
+    // Expands the arrays bound by bindColumnArrays into rows
+    private static final String UNNEST_COLUMNS =
+        "unnest(?::bigint[], ?::bigint[], ?::varchar[], ?::numeric[], ?::date[], ?::varchar[])";
+
+    // Serializes sequence bumps after rows are written with caller-supplied ids
+    private static final long SEQUENCE_LOCK_KEY = 0x7472616e73L;
+    // Serializes partition creation across containers
+    private static final long PARTITION_LOCK_KEY = 0x7472616e70L;
+
+    // Create a new transactions table range-partitioned by month of date; an existing table is left as it is
+    private static final boolean PARTITION_BY_DATE = EnvUtils.getBoolean("DB_PARTITION_BY_DATE", false);
+    // Monthly partitions kept ready around the current month; other dates land in transactions_default
+    private static final int PARTITION_MONTHS_BEHIND = EnvUtils.getInt("DB_PARTITION_MONTHS_BEHIND", 1);
+    private static final int PARTITION_MONTHS_AHEAD = EnvUtils.getInt("DB_PARTITION_MONTHS_AHEAD", 3);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Run the schema DDL whenever a container starts; with false it only runs through the initSchema operation
+    static final boolean SCHEMA_INIT_ON_STARTUP = EnvUtils.getBoolean("SCHEMA_INIT_ON_STARTUP", true);
 
     private static TransactionRepositoryImpl instance;
 
+    private final ConnectionPool connectionPool = ConnectionPool.getInstance();
+
+    // How the transactions table is laid out; null until read from the catalog, which happens on first use
+    private volatile Layout layout;
+
     // Modified constructor to initialize the database table
     private TransactionRepositoryImpl() {
-        initializeDatabase();
+        if (SCHEMA_INIT_ON_STARTUP) {
+            initializeSchema();
+        }
     }
 
     // Initialize database table
-    private void initializeDatabase() {
-        try {
-            // Load the PostgreSQL driver
-            Class.forName("org.postgresql.Driver");
-            
-            try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD)) {
-                String createTableSQL = "CREATE TABLE IF NOT EXISTS transactions ("
-                    + "id SERIAL PRIMARY KEY, "
-                    + "client_id BIGINT NOT NULL, "
-                    + "transaction_type VARCHAR(50) NOT NULL, "
-                    + "amount DECIMAL(15,2) NOT NULL, "
-                    + "date DATE NOT NULL, "
-                    + "status VARCHAR(50) NOT NULL"
-                    + ")";
-                    
-                try (Statement statement = connection.createStatement()) {
-                    statement.execute(createTableSQL);
+    @Override
+    public void initializeSchema() {
+        try (Connection connection = connectionPool.getConnection()) {
+            String columns = "client_id BIGINT NOT NULL, "
+                + "transaction_type VARCHAR(50) NOT NULL, "
+                + "amount DECIMAL(15,2) NOT NULL, "
+                + "date DATE NOT NULL, "
+                + "status VARCHAR(50) NOT NULL";
+            String createTableSQL = "CREATE TABLE IF NOT EXISTS transactions (id SERIAL PRIMARY KEY, " + columns + ")";
+            String createPartitionedTableSQL = "CREATE TABLE IF NOT EXISTS transactions (id BIGSERIAL, " + columns + ", "
+                + "PRIMARY KEY (id, date)) PARTITION BY RANGE (date)";
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(PARTITION_BY_DATE ? createPartitionedTableSQL : createTableSQL);
+                layout = readLayout(connection);
+                boolean partitioned = layout.partitioned();
+                if (PARTITION_BY_DATE && !partitioned) {
+                    System.out.println("DB_PARTITION_BY_DATE is set but transactions already exists unpartitioned; leaving it as is");
+                }
+                if (partitioned) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT");
                 }
+
+                // Keyset pagination walks (date, id) newest first, optionally within one client, status or type
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_transactions_date_id ON transactions (date DESC, id DESC)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_transactions_client_date_id "
+                    + "ON transactions (client_id, date DESC, id DESC)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_transactions_status_date_id "
+                    + "ON transactions (status, date DESC, id DESC)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_transactions_type_date_id "
+                    + "ON transactions (transaction_type, date DESC, id DESC)");
+                // Settlement only ever looks for pending rows, which are a small share of the table
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_transactions_pending_date_client "
+                    + "ON transactions (date, client_id) WHERE status = 'PENDING'");
             }
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Failed to load PostgreSQL driver", e);
+            initializeRollup(connection);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize database: " + e.getMessage(), e);
         }
+        ensurePartitions();
+    }
+
+    @Override
+    public void resetLayout() {
+        layout = null;
+    }
+
+    /**
+     * The table layout, read with one catalog query on first use rather than when the repository is built. A
+     * container restored from a snapshot, or started before initSchema created the table, so never acts on a
+     * layout read before the table existed.
+     */
+    private Layout layout() {
+        Layout current = layout;
+        if (current != null) {
+            return current;
+        }
+        try (Connection connection = connectionPool.getConnection()) {
+            return layout(connection);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the transactions table layout: " + e.getMessage(), e);
+        }
+    }
+
+    // As layout(), for callers already holding a connection, which is used for the catalog query
+    private Layout layout(Connection connection) throws SQLException {
+        Layout current = layout;
+        if (current != null) {
+            return current;
+        }
+        current = readLayout(connection);
+        if (current.exists()) {
+            layout = current;
+        } else {
+            // Not cached, so the table is looked for again once initSchema has created it
+            System.out.println("transactions does not exist yet; run the initSchema operation to create it");
+        }
+        return current;
+    }
+
+    private Layout readLayout(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass('transactions')")) {
+            boolean exists = resultSet.next();
+            return new Layout(exists, exists && resultSet.getBoolean(1));
+        }
+    }
+
+    // A partitioned table's primary key must include date, so ids are only unique together with their date
+    private record Layout(boolean exists, boolean partitioned) {
+        String conflictTarget() {
+            return partitioned ? "(id, date)" : "(id)";
+        }
+
+        // xmax = 0 marks a row the upsert inserted rather than updated; partitioned tables cannot return system
+        // columns, so there every upserted row is treated as possibly new and the sequence check always runs
+        String insertedColumn() {
+            return partitioned ? "TRUE AS inserted" : "(xmax = 0) AS inserted";
+        }
+    }
+
+    /**
+     * Creates transaction_daily_rollup and the statement-level triggers that keep it in step with transactions.
+     *
+     * The triggers read the statement's transition tables, so every write path (single saves, unnest upserts,
+     * the COPY merge and deletes) adjusts each affected (client, day, type, status) bucket once per statement.
+     * Whenever the triggers are missing (first run, or transactions was recreated) the rollup is rebuilt from
+     * existing rows while concurrent writers are held off.
+     */
+    private void initializeRollup(Connection connection) throws SQLException {
+        String triggersExist = "SELECT EXISTS (SELECT 1 FROM pg_trigger "
+            + "WHERE tgrelid = 'transactions'::regclass AND tgname = 'transactions_rollup_insert')";
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(triggersExist)) {
+            resultSet.next();
+            if (resultSet.getBoolean(1)) {
+                return;
+            }
+        }
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE transactions IN SHARE ROW EXCLUSIVE MODE");
+            // Another container may have finished the setup while we waited for the lock
+            try (ResultSet resultSet = statement.executeQuery(triggersExist)) {
+                resultSet.next();
+                if (resultSet.getBoolean(1)) {
+                    connection.commit();
+                    return;
+                }
+            }
+            statement.execute("CREATE TABLE IF NOT EXISTS transaction_daily_rollup ("
+                + "client_id BIGINT NOT NULL, "
+                + "date DATE NOT NULL, "
+                + "transaction_type VARCHAR(50) NOT NULL, "
+                + "status VARCHAR(50) NOT NULL, "
+                + "txn_count BIGINT NOT NULL, "
+                + "total_amount NUMERIC(20,2) NOT NULL, "
+                + "PRIMARY KEY (client_id, date, transaction_type, status)"
+                + ")");
+
+            // Each branch only names the transition tables its trigger defines
+            String newRows = "SELECT client_id, date, transaction_type, status, amount, 1 AS delta FROM new_rows";
+            String oldRows = "SELECT client_id, date, transaction_type, status, amount, -1 AS delta FROM old_rows";
+            statement.execute("CREATE OR REPLACE FUNCTION transaction_daily_rollup_apply() RETURNS trigger AS $$ "
+                + "BEGIN "
+                + "  IF TG_OP = 'INSERT' THEN " + rollupUpsert(newRows) + "; "
+                + "  ELSIF TG_OP = 'DELETE' THEN " + rollupUpsert(oldRows) + "; "
+                + "  ELSE " + rollupUpsert(newRows + " UNION ALL " + oldRows) + "; "
+                + "  END IF; "
+                + "  RETURN NULL; "
+                + "END $$ LANGUAGE plpgsql");
+            statement.execute("DROP TRIGGER IF EXISTS transactions_rollup_insert ON transactions");
+            statement.execute("DROP TRIGGER IF EXISTS transactions_rollup_update ON transactions");
+            statement.execute("DROP TRIGGER IF EXISTS transactions_rollup_delete ON transactions");
+            statement.execute("CREATE TRIGGER transactions_rollup_insert AFTER INSERT ON transactions "
+                + "REFERENCING NEW TABLE AS new_rows "
+                + "FOR EACH STATEMENT EXECUTE FUNCTION transaction_daily_rollup_apply()");
+            statement.execute("CREATE TRIGGER transactions_rollup_update AFTER UPDATE ON transactions "
+                + "REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows "
+                + "FOR EACH STATEMENT EXECUTE FUNCTION transaction_daily_rollup_apply()");
+            statement.execute("CREATE TRIGGER transactions_rollup_delete AFTER DELETE ON transactions "
+                + "REFERENCING OLD TABLE AS old_rows "
+                + "FOR EACH STATEMENT EXECUTE FUNCTION transaction_daily_rollup_apply()");
+
+            statement.execute("TRUNCATE transaction_daily_rollup");
+            statement.execute("INSERT INTO transaction_daily_rollup "
+                + "(client_id, date, transaction_type, status, txn_count, total_amount) "
+                + "SELECT client_id, date, transaction_type, status, COUNT(*), SUM(amount) FROM transactions "
+                + "GROUP BY client_id, date, transaction_type, status");
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Adds each change's +1/-1 and amount to its bucket; buckets are upserted in key order to avoid deadlocks
+    private static String rollupUpsert(String changes) {
+        return "INSERT INTO transaction_daily_rollup AS r "
+            + "(client_id, date, transaction_type, status, txn_count, total_amount) "
+            + "SELECT client_id, date, transaction_type, status, SUM(delta), SUM(delta * amount) "
+            + "FROM (" + changes + ") changes "
+            + "GROUP BY client_id, date, transaction_type, status "
+            + "ORDER BY client_id, date, transaction_type, status "
+            + "ON CONFLICT (client_id, date, transaction_type, status) DO UPDATE SET "
+            + "txn_count = r.txn_count + EXCLUDED.txn_count, "
+            + "total_amount = r.total_amount + EXCLUDED.total_amount";
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Creates any missing monthly partitions from DB_PARTITION_MONTHS_BEHIND before to DB_PARTITION_MONTHS_AHEAD
+     * after the current month. A no-op for an unpartitioned table.
+     */
+    @Override
+    public List<String> ensurePartitions() {
+        List<String> created = new ArrayList<>();
+        if (!layout().partitioned()) {
+            return created;
+        }
+        YearMonth current = YearMonth.now();
+        for (YearMonth month = current.minusMonths(PARTITION_MONTHS_BEHIND);
+             !month.isAfter(current.plusMonths(PARTITION_MONTHS_AHEAD)); month = month.plusMonths(1)) {
+            if (createPartition(month)) {
+                created.add(partitionName(month));
+            }
+        }
+        if (!created.isEmpty()) {
+            System.out.println("Created transaction partitions: " + created);
+        }
+        return created;
+    }
+
+    /**
+     * Rows for the month already in the default partition are moved across first, or ATTACH would reject the
+     * overlap. Writes to transactions are held off for the whole move and attach, so a row routed to the default
+     * partition in between cannot make the ATTACH fail. Locking the parent rather than the default partition
+     * lets held-off inserts be routed once the new partition is attached. Reads continue until the ATTACH itself.
+     */
+    private boolean createPartition(YearMonth month) {
+        String name = partitionName(month);
+        String lower = "'" + month.atDay(1) + "'";
+        String upper = "'" + month.plusMonths(1).atDay(1) + "'";
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_xact_lock(" + PARTITION_LOCK_KEY + ")");
+                try (ResultSet resultSet = statement.executeQuery("SELECT to_regclass('" + name + "') IS NOT NULL")) {
+                    resultSet.next();
+                    if (resultSet.getBoolean(1)) {
+                        connection.commit();
+                        return false;
+                    }
+                }
+                statement.execute("LOCK TABLE transactions IN SHARE ROW EXCLUSIVE MODE");
+                statement.execute("CREATE TABLE " + name + " (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                statement.execute("WITH moved AS (DELETE FROM transactions_default "
+                    + "WHERE date >= " + lower + " AND date < " + upper + " RETURNING *) "
+                    + "INSERT INTO " + name + " SELECT * FROM moved");
+                statement.execute("ALTER TABLE transactions ATTACH PARTITION " + name
+                    + " FOR VALUES FROM (" + lower + ") TO (" + upper + ")");
+                connection.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create partition " + name, e);
+        }
+    }
+
+    /**
+     * Detaches, and optionally drops, every monthly partition that ends on or before cutoff. This replaces a bulk
+     * DELETE with a metadata change. Rollup rows for those months are removed so summaries match the live table.
+     */
+    @Override
+    public List<String> detachPartitionsBefore(LocalDate cutoff, boolean drop) {
+        List<String> detached = new ArrayList<>();
+        if (!layout().partitioned()) {
+            return detached;
+        }
+        try (Connection connection = connectionPool.getConnection()) {
+            List<String> names = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT c.relname FROM pg_inherits i "
+                     + "JOIN pg_class c ON c.oid = i.inhrelid "
+                     + "WHERE i.inhparent = 'transactions'::regclass AND c.relname ~ '^transactions_p[0-9]{4}_[0-9]{2}$' "
+                     + "ORDER BY c.relname")) {
+                while (resultSet.next()) {
+                    names.add(resultSet.getString(1));
+                }
+            }
+
+            for (String name : names) {
+                YearMonth month = YearMonth.parse(name.substring("transactions_p".length()), PARTITION_SUFFIX);
+                if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                    continue;
+                }
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE transactions DETACH PARTITION " + name);
+                    statement.execute("DELETE FROM transaction_daily_rollup WHERE date >= '" + month.atDay(1)
+                        + "' AND date < '" + month.plusMonths(1).atDay(1) + "'");
+                    if (drop) {
+                        statement.execute("DROP TABLE " + name);
+                    }
+                    connection.commit();
+                    detached.add(name);
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to detach partitions", e);
+        }
+        return detached;
     }
 
     public static synchronized TransactionRepositoryImpl getInstance() {
@@ -59,7 +393,7 @@ public class TransactionRepositoryImpl implements TransactionRepository {
     @Override
     public List<Transaction> findAll() {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        try (Connection connection = connectionPool.getConnection();
              Statement statement = connection.createStatement();
              ResultSet resultSet = statement.executeQuery("SELECT * FROM transactions")) {
 
@@ -73,9 +407,134 @@ public class TransactionRepositoryImpl implements TransactionRepository {
         return transactions;
     }
 
+    @Override
+    public List<Transaction> findPage(TransactionQuery query, LocalDate afterDate, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM transactions WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        appendFilters(query, sql, params);
+        if (afterDate != null && afterId != null) {
+            // Row comparison lets the (date, id) index seek straight to the cursor instead of skipping an OFFSET
+            // The redundant date bound lets a partitioned table skip partitions newer than the cursor
+            sql.append(" AND (date, id) < (?, ?) AND date <= ?");
+            params.add(Date.valueOf(afterDate));
+            params.add(afterId);
+            params.add(Date.valueOf(afterDate));
+        }
+        sql.append(" ORDER BY date DESC, id DESC LIMIT ?");
+        params.add(limit);
+
+        List<Transaction> transactions = new ArrayList<>(limit);
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    transactions.add(mapRowToTransaction(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch transaction page", e);
+        }
+        return transactions;
+    }
+
+    @Override
+    public long forEach(TransactionQuery query, Consumer<Transaction> action) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM transactions WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        appendFilters(query, sql, params);
+        sql.append(" ORDER BY date DESC, id DESC");
+
+        long count = 0;
+        try (Connection connection = connectionPool.getConnection()) {
+            // The driver only uses a server-side cursor, fetching STREAM_FETCH_SIZE rows at a time, outside autocommit
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                statement.setFetchSize(STREAM_FETCH_SIZE);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        action.accept(mapRowToTransaction(resultSet));
+                        count++;
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to stream transactions", e);
+        }
+        return count;
+    }
+
+    // Appends the query's optional filters as AND clauses; a null query matches every row
+    private void appendFilters(TransactionQuery query, StringBuilder sql, List<Object> params) {
+        if (query == null) {
+            return;
+        }
+        if (query.getClientId() != null) {
+            sql.append(" AND client_id = ?");
+            params.add(query.getClientId());
+        }
+        if (query.getFromDate() != null) {
+            sql.append(" AND date >= ?");
+            params.add(Date.valueOf(query.getFromDate()));
+        }
+        if (query.getToDate() != null) {
+            sql.append(" AND date <= ?");
+            params.add(Date.valueOf(query.getToDate()));
+        }
+        if (query.getStatus() != null) {
+            sql.append(" AND status = ?");
+            params.add(query.getStatus().toString());
+        }
+        if (query.getTransactionType() != null) {
+            sql.append(" AND transaction_type = ?");
+            params.add(query.getTransactionType().toString());
+        }
+    }
+
+    @Override
+    public List<DailyTransactionRollup> findDailyRollup(TransactionQuery query) {
+        StringBuilder sql = new StringBuilder("SELECT date, transaction_type, status, "
+            + "SUM(txn_count) AS txn_count, SUM(total_amount) AS total_amount "
+            + "FROM transaction_daily_rollup WHERE txn_count <> 0");
+        List<Object> params = new ArrayList<>();
+        appendFilters(query, sql, params);
+        sql.append(" GROUP BY date, transaction_type, status ORDER BY date, transaction_type, status");
+
+        List<DailyTransactionRollup> rollups = new ArrayList<>();
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    DailyTransactionRollup rollup = new DailyTransactionRollup();
+                    rollup.setDate(resultSet.getDate("date").toLocalDate());
+                    rollup.setTransactionType(TransactionType.valueOf(resultSet.getString("transaction_type")));
+                    rollup.setStatus(TransactionStatus.valueOf(resultSet.getString("status")));
+                    rollup.setCount(resultSet.getLong("txn_count"));
+                    rollup.setTotalAmount(resultSet.getDouble("total_amount"));
+                    rollups.add(rollup);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch transaction rollup", e);
+        }
+        return rollups;
+    }
+
     @Override
     public Optional<Transaction> findById(Long id) {
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        try (Connection connection = connectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement("SELECT * FROM transactions WHERE id = ?")) {
 
             statement.setLong(1, id);
@@ -95,66 +554,524 @@ public class TransactionRepositoryImpl implements TransactionRepository {
     public Transaction save(Transaction transaction) {
         if (transaction.getId() == null) {
             return insertTransaction(transaction);
-        } else {
-            if (existsById(transaction.getId())) {
-                return updateTransaction(transaction);
-            } else {
-                return insertTransaction(transaction);
+        }
+        return upsertTransaction(transaction);
+    }
+
+    @Override
+    public Optional<Transaction> update(Transaction transaction) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE transactions SET client_id = ?, transaction_type = ?, amount = ?, date = ?, status = ? "
+                     + "WHERE id = ? RETURNING *")) {
+
+            bindColumns(statement, transaction);
+            statement.setLong(6, transaction.getId());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(mapRowToTransaction(resultSet)) : Optional.empty();
             }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update transaction", e);
         }
     }
 
-    private Transaction insertTransaction(Transaction transaction) {
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+    @Override
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        for (int start = 0; start < transactions.size(); start += BATCH_SIZE) {
+            saveBatch(transactions.subList(start, Math.min(start + BATCH_SIZE, transactions.size())), null);
+        }
+        return transactions;
+    }
+
+    @Override
+    public long saveAll(Iterator<Transaction> transactions) {
+        return saveAll(transactions, null);
+    }
+
+    @Override
+    public long saveAll(Iterator<Transaction> transactions, BatchCommitListener listener) {
+        long saved = 0;
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        while (transactions.hasNext()) {
+            batch.add(transactions.next());
+            if (batch.size() == BATCH_SIZE) {
+                saveBatch(batch, listener);
+                saved += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(batch, listener);
+            saved += batch.size();
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Transaction> saveBatch(List<Transaction> transactions) {
+        if (!transactions.isEmpty()) {
+            saveBatch(transactions, null);
+        }
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> updateAll(List<Transaction> transactions) {
+        List<Transaction> updated = new ArrayList<>();
+        if (transactions.isEmpty()) {
+            return updated;
+        }
+        // A single statement, so every row (and the rollup trigger) changes together or not at all
+        try (Connection connection = connectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement(
-                     "INSERT INTO transactions (client_id, transaction_type, amount, date, status) VALUES (?, ?, ?, ?, ?)",
-                     Statement.RETURN_GENERATED_KEYS)) {
+                     "UPDATE transactions t SET client_id = u.client_id, transaction_type = u.transaction_type, "
+                     + "amount = u.amount, date = u.date, status = u.status "
+                     + "FROM " + UNNEST_COLUMNS + " AS u(id, client_id, transaction_type, amount, date, status) "
+                     + "WHERE t.id = u.id RETURNING t.*")) {
+
+            bindColumnArrays(connection, statement, transactions);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    updated.add(mapRowToTransaction(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update transaction batch", e);
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Long> deleteAllById(List<Long> ids) {
+        List<Long> deleted = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return deleted;
+        }
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM transactions WHERE id = ANY(?) RETURNING id")) {
+
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    deleted.add(resultSet.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete transaction batch", e);
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Long> updateStatus(StatusTransition transition) {
+        TransactionQuery filters = new TransactionQuery();
+        filters.setClientId(transition.getClientId());
+        filters.setFromDate(transition.getFromDate());
+        filters.setToDate(transition.getToDate());
 
-            statement.setLong(1, transaction.getClientId());
-            statement.setString(2, transaction.getTransactionType().toString());
-            statement.setDouble(3, transaction.getAmount());
-            statement.setDate(4, Date.valueOf(transaction.getDate()));
-            statement.setString(5, transaction.getStatus().toString());
-            statement.executeUpdate();
+        // The status condition makes the transition safe to repeat and lets pending rows come from the partial index.
+        // It is inlined as a literal (an enum name, so nothing to escape): once pgjdbc switches the statement to a
+        // generic plan, a bound parameter could no longer be matched to the index's status = 'PENDING'
+        StringBuilder sql = new StringBuilder("UPDATE transactions SET status = ? WHERE status = '"
+            + transition.getFromStatus().name() + "'");
+        List<Object> params = new ArrayList<>();
+        params.add(transition.getToStatus().toString());
+        appendFilters(filters, sql, params);
+        boolean byIds = transition.getIds() != null && !transition.getIds().isEmpty();
+        if (byIds) {
+            sql.append(" AND id = ANY(?)");
+        }
+        sql.append(" RETURNING id");
+
+        List<Long> updated = new ArrayList<>();
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            if (byIds) {
+                statement.setArray(params.size() + 1, connection.createArrayOf("bigint", transition.getIds().toArray()));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    updated.add(resultSet.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update transaction status", e);
+        }
+        return updated;
+    }
 
+    // Writes one batch in a single database transaction: rows with an id are upserted, the rest get a generated id
+    private void saveBatch(List<Transaction> batch, BatchCommitListener listener) {
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                // An id may appear only once per ON CONFLICT statement, so the last row for each id wins
+                Map<Long, Transaction> upserts = new LinkedHashMap<>();
+                List<Transaction> inserts = new ArrayList<>();
+                for (Transaction transaction : batch) {
+                    if (transaction.getId() != null) {
+                        upserts.remove(transaction.getId());
+                        upserts.put(transaction.getId(), transaction);
+                    } else {
+                        inserts.add(transaction);
+                    }
+                }
+                upsertBatch(connection, upserts.values());
+                insertBatch(connection, inserts);
+                if (listener != null) {
+                    listener.beforeCommit(connection, batch.size());
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save transaction batch", e);
+        }
+    }
+
+    // Upserts the whole batch in one statement by passing each column as an array and expanding it with unnest
+    private void upsertBatch(Connection connection, Collection<Transaction> upserts) throws SQLException {
+        if (upserts.isEmpty()) {
+            return;
+        }
+        Layout layout = layout(connection);
+        if (layout.partitioned()) {
+            // The conflict target includes date, so a row whose date changed must be removed from its old partition
+            Long[] ids = new Long[upserts.size()];
+            String[] dates = new String[upserts.size()];
+            int i = 0;
+            for (Transaction transaction : upserts) {
+                ids[i] = transaction.getId();
+                dates[i] = transaction.getDate().toString();
+                i++;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM transactions t USING unnest(?::bigint[], ?::date[]) AS u(id, date) "
+                    + "WHERE t.id = u.id AND t.date <> u.date")) {
+                statement.setArray(1, connection.createArrayOf("bigint", ids));
+                statement.setArray(2, connection.createArrayOf("varchar", dates));
+                statement.executeUpdate();
+            }
+        }
+
+        long maxInsertedId = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO transactions (id, client_id, transaction_type, amount, date, status) "
+                + "SELECT * FROM " + UNNEST_COLUMNS + " "
+                + "ON CONFLICT " + layout.conflictTarget() + " DO UPDATE SET " + UPSERT_ASSIGNMENTS + " "
+                + "RETURNING id, " + layout.insertedColumn())) {
+            bindColumnArrays(connection, statement, upserts);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (resultSet.getBoolean("inserted")) {
+                        maxInsertedId = Math.max(maxInsertedId, resultSet.getLong("id"));
+                    }
+                }
+            }
+        }
+        advanceIdSequence(connection, maxInsertedId);
+    }
+
+    // Binds id, client_id, transaction_type, amount, date and status as one array each to parameters 1-6
+    private static void bindColumnArrays(Connection connection, PreparedStatement statement,
+            Collection<Transaction> transactions) throws SQLException {
+        int size = transactions.size();
+        Long[] ids = new Long[size];
+        Long[] clientIds = new Long[size];
+        String[] types = new String[size];
+        Double[] amounts = new Double[size];
+        String[] dates = new String[size];
+        String[] statuses = new String[size];
+        int i = 0;
+        for (Transaction transaction : transactions) {
+            ids[i] = transaction.getId();
+            clientIds[i] = transaction.getClientId();
+            types[i] = transaction.getTransactionType().toString();
+            amounts[i] = transaction.getAmount();
+            dates[i] = transaction.getDate().toString();
+            statuses[i] = transaction.getStatus().toString();
+            i++;
+        }
+        statement.setArray(1, connection.createArrayOf("bigint", ids));
+        statement.setArray(2, connection.createArrayOf("bigint", clientIds));
+        statement.setArray(3, connection.createArrayOf("varchar", types));
+        statement.setArray(4, connection.createArrayOf("float8", amounts));
+        statement.setArray(5, connection.createArrayOf("varchar", dates));
+        statement.setArray(6, connection.createArrayOf("varchar", statuses));
+    }
+
+    private void insertBatch(Connection connection, List<Transaction> inserts) throws SQLException {
+        if (inserts.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO transactions (client_id, transaction_type, amount, date, status) VALUES (?, ?, ?, ?, ?)",
+                new String[] {"id"})) {
+            for (Transaction transaction : inserts) {
+                bindColumns(statement, transaction);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+            // Generated keys come back in batch order
             try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
+                for (Transaction transaction : inserts) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Creating transactions failed, fewer IDs returned than rows inserted.");
+                    }
                     transaction.setId(generatedKeys.getLong(1));
-                } else {
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the SERIAL sequence past an id that was written explicitly, so later generated ids cannot collide
+     * with it. Must run inside the caller's transaction; the advisory lock keeps concurrent writers from
+     * moving the sequence backwards.
+     */
+    private void advanceIdSequence(Connection connection, long insertedId) throws SQLException {
+        if (insertedId <= 0) {
+            return;
+        }
+        // A sequence that has never been used hands out last_value itself next, so treat it as 0
+        String sequenceCheck = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM transactions_id_seq";
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(sequenceCheck)) {
+                if (resultSet.next() && resultSet.getLong(1) >= insertedId) {
+                    return;
+                }
+            }
+            statement.execute("SELECT pg_advisory_xact_lock(" + SEQUENCE_LOCK_KEY + ")");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT setval('transactions_id_seq', ?) FROM transactions_id_seq WHERE last_value < ? OR NOT is_called")) {
+            statement.setLong(1, insertedId);
+            statement.setLong(2, insertedId);
+            statement.execute();
+        }
+    }
+
+    // Binds client_id, transaction_type, amount, date and status to parameters 1-5
+    private void bindColumns(PreparedStatement statement, Transaction transaction) throws SQLException {
+        statement.setLong(1, transaction.getClientId());
+        statement.setString(2, transaction.getTransactionType().toString());
+        statement.setDouble(3, transaction.getAmount());
+        statement.setDate(4, Date.valueOf(transaction.getDate()));
+        statement.setString(5, transaction.getStatus().toString());
+    }
+
+    private Transaction insertTransaction(Transaction transaction) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO transactions (client_id, transaction_type, amount, date, status) VALUES (?, ?, ?, ?, ?) "
+                     + "RETURNING *")) {
+
+            bindColumns(statement, transaction);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
                     throw new SQLException("Creating transaction failed, no ID obtained.");
                 }
+                return mapRowToTransaction(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to create transaction", e);
         }
-        return transaction;
     }
 
-    private Transaction updateTransaction(Transaction transaction) {
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+    // Inserts the row under its own id, or overwrites the existing row with that id, in one round trip
+    private Transaction upsertTransaction(Transaction transaction) {
+        Layout layout = layout();
+        try (Connection connection = connectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement(
-                     "UPDATE transactions SET client_id = ?, transaction_type = ?, amount = ?, date = ?, status = ? WHERE id = ?")) {
+                     "INSERT INTO transactions (client_id, transaction_type, amount, date, status, id) "
+                     + "VALUES (?, ?, ?, ?, ?, ?) "
+                     + "ON CONFLICT " + layout.conflictTarget() + " DO UPDATE SET " + UPSERT_ASSIGNMENTS + " "
+                     + "RETURNING *, " + layout.insertedColumn())) {
 
-            statement.setLong(1, transaction.getClientId());
-            statement.setString(2, transaction.getTransactionType().toString());
-            statement.setDouble(3, transaction.getAmount());
-            statement.setDate(4, Date.valueOf(transaction.getDate()));
-            statement.setString(5, transaction.getStatus().toString());
+            bindColumns(statement, transaction);
             statement.setLong(6, transaction.getId());
-            int rowsAffected = statement.executeUpdate();
+            Transaction saved;
+            boolean inserted;
+            connection.setAutoCommit(false);
+            try {
+                if (layout.partitioned()) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM transactions WHERE id = ? AND date <> ?")) {
+                        delete.setLong(1, transaction.getId());
+                        delete.setDate(2, Date.valueOf(transaction.getDate()));
+                        delete.executeUpdate();
+                    }
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    saved = mapRowToTransaction(resultSet);
+                    inserted = resultSet.getBoolean("inserted");
+                }
+                if (inserted) {
+                    advanceIdSequence(connection, saved.getId());
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            return saved;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save transaction", e);
+        }
+    }
 
-            if (rowsAffected == 0) {
-                throw new IllegalArgumentException("Transaction not found with ID: " + transaction.getId());
+    @Override
+    public long copyAll(Iterator<Transaction> transactions) {
+        return copyAll(transactions, null);
+    }
+
+    /**
+     * Without a listener the whole stream is loaded in one transaction. With one, every COPY_COMMIT_ROWS rows are
+     * committed separately so a checkpoint can follow each commit.
+     */
+    @Override
+    public long copyAll(Iterator<Transaction> transactions, BatchCommitListener listener) {
+        if (listener == null || COPY_COMMIT_ROWS <= 0) {
+            return copyChunk(transactions, listener);
+        }
+        long copied = 0;
+        while (transactions.hasNext()) {
+            copied += copyChunk(limit(transactions, COPY_COMMIT_ROWS), listener);
+        }
+        return copied;
+    }
+
+    private long copyChunk(Iterator<Transaction> transactions, BatchCommitListener listener) {
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    // seq preserves file order so the last row wins when an id appears more than once
+                    statement.execute("CREATE TEMP TABLE transactions_staging ("
+                        + "seq BIGSERIAL, "
+                        + "id BIGINT, "
+                        + "client_id BIGINT NOT NULL, "
+                        + "transaction_type VARCHAR(50) NOT NULL, "
+                        + "amount DECIMAL(15,2) NOT NULL, "
+                        + "date DATE NOT NULL, "
+                        + "status VARCHAR(50) NOT NULL"
+                        + ") ON COMMIT DROP");
+                }
+
+                long copied = copyToStaging(connection, transactions);
+                mergeStaging(connection);
+                if (listener != null) {
+                    listener.beforeCommit(connection, copied);
+                }
+                connection.commit();
+                return copied;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to update transaction", e);
+            throw new RuntimeException("Failed to bulk load transactions", e);
         }
-        return transaction;
+    }
+
+    // Yields at most max rows from source without reading past the last one it returns
+    private static Iterator<Transaction> limit(Iterator<Transaction> source, long max) {
+        return new Iterator<>() {
+            private long remaining = max;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0 && source.hasNext();
+            }
+
+            @Override
+            public Transaction next() {
+                remaining--;
+                return source.next();
+            }
+        };
+    }
+
+    // Streams rows into the staging table with COPY FROM STDIN, flushing every COPY_BUFFER_SIZE bytes
+    private long copyToStaging(Connection connection, Iterator<Transaction> transactions) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY transactions_staging (id, client_id, transaction_type, amount, date, status) FROM STDIN WITH (FORMAT csv)");
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 256);
+            while (transactions.hasNext()) {
+                Transaction transaction = transactions.next();
+                if (transaction.getId() != null) {
+                    buffer.append(transaction.getId());
+                }
+                buffer.append(',').append(transaction.getClientId())
+                      .append(',').append(transaction.getTransactionType())
+                      .append(',').append(transaction.getAmount())
+                      .append(',').append(transaction.getDate())
+                      .append(',').append(transaction.getStatus())
+                      .append('\n');
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    // Set-based equivalent of save(): rows with an id are upserted (last occurrence wins), the rest get a generated id
+    private void mergeStaging(Connection connection) throws SQLException {
+        long maxInsertedId = 0;
+        Layout layout = layout(connection);
+        try (Statement statement = connection.createStatement()) {
+            if (layout.partitioned()) {
+                statement.executeUpdate("DELETE FROM transactions t "
+                    + "USING (SELECT DISTINCT ON (id) id, date FROM transactions_staging "
+                    + "WHERE id IS NOT NULL ORDER BY id, seq DESC) s "
+                    + "WHERE t.id = s.id AND t.date <> s.date");
+            }
+            try (ResultSet resultSet = statement.executeQuery(
+                    "WITH upserted AS ("
+                    + "INSERT INTO transactions (id, client_id, transaction_type, amount, date, status) "
+                    + "SELECT DISTINCT ON (id) id, client_id, transaction_type, amount, date, status "
+                    + "FROM transactions_staging WHERE id IS NOT NULL ORDER BY id, seq DESC "
+                    + "ON CONFLICT " + layout.conflictTarget() + " DO UPDATE SET " + UPSERT_ASSIGNMENTS + " "
+                    + "RETURNING id, " + layout.insertedColumn() + ") "
+                    + "SELECT COALESCE(MAX(id) FILTER (WHERE inserted), 0) FROM upserted")) {
+                if (resultSet.next()) {
+                    maxInsertedId = resultSet.getLong(1);
+                }
+            }
+            statement.executeUpdate("INSERT INTO transactions (client_id, transaction_type, amount, date, status) "
+                + "SELECT client_id, transaction_type, amount, date, status "
+                + "FROM transactions_staging WHERE id IS NULL ORDER BY seq");
+        }
+        advanceIdSequence(connection, maxInsertedId);
     }
 
     @Override
     public void deleteById(Long id) {
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        try (Connection connection = connectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement("DELETE FROM transactions WHERE id = ?")) {
 
             statement.setLong(1, id);
@@ -170,7 +1087,7 @@ public class TransactionRepositoryImpl implements TransactionRepository {
 
     @Override
     public boolean existsById(Long id) {
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        try (Connection connection = connectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM transactions WHERE id = ?")) {
 
             statement.setLong(1, id);
@@ -185,7 +1102,7 @@ public class TransactionRepositoryImpl implements TransactionRepository {
     @Override
     public List<Transaction> findAllByClientId(Long clientId) {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        try (Connection connection = connectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement("SELECT * FROM transactions WHERE client_id = ?")) {
 
             statement.setLong(1, clientId);
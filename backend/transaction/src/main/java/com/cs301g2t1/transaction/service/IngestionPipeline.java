@@ -0,0 +1,498 @@
+package com.cs301g2t1.transaction.service;
+
+import com.cs301g2t1.transaction.model.CheckpointStatus;
+import com.cs301g2t1.transaction.model.FileIngestionResult;
+import com.cs301g2t1.transaction.model.IngestMode;
+import com.cs301g2t1.transaction.model.IngestionCheckpoint;
+import com.cs301g2t1.transaction.model.PipelineStageMetrics;
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.repository.BatchCommitListener;
+import com.cs301g2t1.transaction.repository.IngestionCheckpointRepository;
+import com.cs301g2t1.transaction.utils.CsvCompression;
+import com.cs301g2t1.transaction.utils.EnvUtils;
+import com.cs301g2t1.transaction.utils.SFTPFacade;
+import com.cs301g2t1.transaction.utils.TransactionCsvReader;
+import com.cs301g2t1.transaction.utils.TransactionUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ingests a directory as three overlapping stages connected by bounded queues:
+ *
+ *   download - copies each remote file, still compressed if it was, to a local temp file
+ *   parse    - decompresses and tokenizes downloaded files into row batches
+ *   persist  - writes batches to the database
+ *
+ * A full queue blocks the stage feeding it, so at most PIPELINE_DOWNLOAD_QUEUE_DEPTH files sit on local
+ * disk and PIPELINE_PARSE_QUEUE_DEPTH batches per writer sit in memory. All batches of a file go to the
+ * same writer in order, which keeps last-row-wins semantics for repeated ids within a file, and lets each
+ * batch commit together with the file's checkpoint. A file stopped by the deadline or a failure is left with
+ * a checkpoint after its last committed batch, so the next run resumes it through the sequential path.
+ */
+class IngestionPipeline {
+
+    private static final int DOWNLOAD_WORKERS = Math.max(1, EnvUtils.getInt("PIPELINE_DOWNLOAD_WORKERS", 2));
+    private static final int DOWNLOAD_QUEUE_DEPTH = Math.max(1, EnvUtils.getInt("PIPELINE_DOWNLOAD_QUEUE_DEPTH", 2));
+    private static final int PARSE_WORKERS = Math.max(1, EnvUtils.getInt("PIPELINE_PARSE_WORKERS", 1));
+    private static final int PARSE_QUEUE_DEPTH = Math.max(1, EnvUtils.getInt("PIPELINE_PARSE_QUEUE_DEPTH", 4));
+    private static final int PERSIST_WORKERS = Math.max(1, EnvUtils.getInt("PIPELINE_PERSIST_WORKERS", 2));
+    private static final int BATCH_ROWS = Math.max(1, EnvUtils.getInt("PIPELINE_BATCH_ROWS", 5000));
+
+    // Queue sentinels telling a worker that its upstream stage has finished
+    private static final DownloadedFile END_OF_FILES = new DownloadedFile(null, null);
+    private static final RowBatch END_OF_BATCHES = new RowBatch(null, null, null, null);
+
+    private final TransactionService transactionService;
+    private final IngestionCheckpointRepository checkpointRepository;
+    private final Supplier<SFTPFacade> sftpFacadeFactory;
+    private final SFTPFacade controlFacade;
+    private final String sourceDirectory;
+    private final IngestMode ingestMode;
+    private final long deadline;
+    private final Consumer<FileIngestionResult> onFinished;
+
+    private final BlockingQueue<DownloadedFile> parseQueue = new ArrayBlockingQueue<>(DOWNLOAD_QUEUE_DEPTH);
+    private final List<BlockingQueue<RowBatch>> persistQueues = new ArrayList<>();
+
+    private final StageStats downloadStats = new StageStats("download", DOWNLOAD_WORKERS, DOWNLOAD_QUEUE_DEPTH);
+    private final StageStats parseStats = new StageStats("parse", PARSE_WORKERS, PARSE_QUEUE_DEPTH * PERSIST_WORKERS);
+    private final StageStats persistStats = new StageStats("persist", PERSIST_WORKERS, 0);
+
+    private FileState[] files;
+
+    /**
+     * @param controlFacade connected facade used to move finished files; download workers open their own
+     * @param deadline epoch millis after which no new file or batch is started
+     * @param onFinished called with each file's result once it is moved or paused, before the run ends
+     */
+    IngestionPipeline(TransactionService transactionService, IngestionCheckpointRepository checkpointRepository,
+                      Supplier<SFTPFacade> sftpFacadeFactory, SFTPFacade controlFacade, String sourceDirectory,
+                      IngestMode ingestMode, long deadline, Consumer<FileIngestionResult> onFinished) {
+        this.transactionService = transactionService;
+        this.checkpointRepository = checkpointRepository;
+        this.sftpFacadeFactory = sftpFacadeFactory;
+        this.controlFacade = controlFacade;
+        this.sourceDirectory = sourceDirectory;
+        this.ingestMode = ingestMode;
+        this.deadline = deadline;
+        this.onFinished = onFinished;
+        for (int i = 0; i < PERSIST_WORKERS; i++) {
+            persistQueues.add(new ArrayBlockingQueue<>(PARSE_QUEUE_DEPTH));
+        }
+    }
+
+    List<FileIngestionResult> run(List<String> csvFiles) throws Exception {
+        System.out.println("Ingesting " + csvFiles.size() + " files through pipeline (download=" + DOWNLOAD_WORKERS
+                + ", parse=" + PARSE_WORKERS + ", persist=" + PERSIST_WORKERS + ")");
+        files = new FileState[csvFiles.size()];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new FileState(i, csvFiles.get(i));
+        }
+        AtomicInteger nextFile = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> persistWorkers = new ArrayList<>();
+            for (BlockingQueue<RowBatch> queue : persistQueues) {
+                persistWorkers.add(executor.submit(() -> persistLoop(queue)));
+            }
+            List<Future<?>> parseWorkers = new ArrayList<>();
+            for (int i = 0; i < PARSE_WORKERS; i++) {
+                parseWorkers.add(executor.submit(this::parseLoop));
+            }
+            List<Future<?>> downloadWorkers = new ArrayList<>();
+            for (int i = 0; i < DOWNLOAD_WORKERS; i++) {
+                downloadWorkers.add(executor.submit(() -> downloadLoop(nextFile)));
+            }
+
+            // Shut the stages down in order so each one drains what is already queued
+            awaitStage(downloadWorkers);
+            for (int i = 0; i < PARSE_WORKERS; i++) {
+                parseQueue.put(END_OF_FILES);
+            }
+            awaitStage(parseWorkers);
+            for (BlockingQueue<RowBatch> queue : persistQueues) {
+                queue.put(END_OF_BATCHES);
+            }
+            awaitStage(persistWorkers);
+        }
+
+        List<FileIngestionResult> results = new ArrayList<>();
+        for (FileState file : files) {
+            if (!file.finished) {
+                file.result.setErrorMessage("Not processed: ingestion worker failed");
+            }
+            results.add(file.result);
+        }
+        return results;
+    }
+
+    List<PipelineStageMetrics> getStageMetrics() {
+        return Arrays.asList(downloadStats.snapshot(), parseStats.snapshot(), persistStats.snapshot());
+    }
+
+    private void awaitStage(List<Future<?>> workers) throws InterruptedException {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                // A download worker that cannot connect leaves its files to the other workers
+                System.out.println("Pipeline worker failed: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private Void downloadLoop(AtomicInteger nextFile) throws Exception {
+        try (SFTPFacade sftpFacade = sftpFacadeFactory.get()) {
+            sftpFacade.connect();
+            int index;
+            while ((index = nextFile.getAndIncrement()) < files.length) {
+                FileState file = files[index];
+                if (System.currentTimeMillis() >= deadline) {
+                    file.pause("Not started: time budget exhausted");
+                    file.release();
+                    continue;
+                }
+                long start = System.nanoTime();
+                Path localFile = null;
+                try {
+                    file.result.setFileSize(sftpFacade.getFileSize(file.path));
+                    file.result.setIngestMode(IngestionServiceImpl.resolveIngestMode(ingestMode, file.result.getFileSize()));
+                    IngestionCheckpoint checkpoint = IngestionServiceImpl.newCheckpoint(file.path,
+                            file.result.getFileSize(), sftpFacade.getModifiedTime(file.path));
+                    checkpointRepository.save(checkpoint);
+                    file.checkpoint = checkpoint;
+                    localFile = Files.createTempFile("ingest-", ".csv");
+                    try (InputStream inputStream = sftpFacade.streamFile(file.path)) {
+                        Files.copy(inputStream, localFile, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (Exception e) {
+                    if (localFile != null) {
+                        Files.deleteIfExists(localFile);
+                    }
+                    file.fail("Download failed: " + e.getMessage());
+                    file.release();
+                    continue;
+                } finally {
+                    downloadStats.busy(start);
+                }
+                downloadStats.put(parseQueue, new DownloadedFile(file, localFile), List.of(parseQueue));
+                downloadStats.processed();
+            }
+        }
+        return null;
+    }
+
+    private Void parseLoop() throws Exception {
+        while (true) {
+            DownloadedFile downloaded = parseStats.take(parseQueue);
+            if (downloaded == END_OF_FILES) {
+                return null;
+            }
+            FileState file = downloaded.file;
+            BlockingQueue<RowBatch> output = persistQueues.get(file.index % persistQueues.size());
+            long start = System.nanoTime();
+            try (InputStream inputStream = file.compression.decompress(Files.newInputStream(downloaded.localFile));
+                 TransactionCsvReader reader = TransactionUtils.streamCsvTransactions(inputStream)) {
+                reader.setRejectHandler(file.quarantine);
+                // Written by the persist stage with each batch; the queue hand-off publishes the header to it
+                file.checkpoint.setHeader(reader.getHeader());
+                RowBatch batch = new RowBatch(file);
+                while (!file.failed() && reader.hasNext()) {
+                    if (batch.size == 0 && System.currentTimeMillis() >= deadline) {
+                        file.pause(null);
+                        break;
+                    }
+                    batch.add(reader.next(), reader.getByteOffset(), reader.getLineNumber());
+                    if (batch.size == BATCH_ROWS) {
+                        parseStats.busy(start);
+                        file.pendingBatches.incrementAndGet();
+                        parseStats.put(output, batch, persistQueues);
+                        batch = new RowBatch(file);
+                        start = System.nanoTime();
+                    }
+                }
+                if (batch.size > 0 && !file.failed() && !file.paused) {
+                    parseStats.busy(start);
+                    file.pendingBatches.incrementAndGet();
+                    parseStats.put(output, batch, persistQueues);
+                    start = System.nanoTime();
+                }
+                parseStats.processed();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                file.fail(e.getMessage());
+            } finally {
+                parseStats.busy(start);
+                Files.deleteIfExists(downloaded.localFile);
+                file.release();
+            }
+        }
+    }
+
+    private Void persistLoop(BlockingQueue<RowBatch> queue) throws Exception {
+        while (true) {
+            RowBatch batch = persistStats.take(queue);
+            if (batch == END_OF_BATCHES) {
+                return null;
+            }
+            FileState file = batch.file;
+            long start = System.nanoTime();
+            try {
+                // Batches queued behind a failure are dropped so the file is not half-loaded any further
+                if (!file.failed()) {
+                    // The repository may split the batch into several commits; each records how far it got
+                    int[] committed = {0};
+                    BatchCommitListener listener = (connection, rows) -> {
+                        committed[0] += (int) rows;
+                        file.checkpoint(connection, rows, batch.byteOffsets[committed[0] - 1], batch.lineNumbers[committed[0] - 1]);
+                    };
+                    List<Transaction> rows = Arrays.asList(batch.rows).subList(0, batch.size);
+                    if (file.result.getIngestMode() == IngestMode.COPY) {
+                        transactionService.bulkLoadTransactions(rows.iterator(), listener);
+                    } else {
+                        transactionService.createTransactions(rows.iterator(), listener);
+                    }
+                    persistStats.processed();
+                }
+            } catch (Exception e) {
+                file.fail(e.getMessage());
+            } finally {
+                persistStats.busy(start);
+                file.release();
+            }
+        }
+    }
+
+    // Moves the file to .done or .error once its last batch is in, or leaves it in place with its checkpoint if paused
+    private void finish(FileState file) {
+        file.finished = true;
+        FileIngestionResult result = file.result;
+        result.setRowsProcessed(file.rows.get());
+        try (RowQuarantine quarantine = file.quarantine) {
+            IngestionCheckpoint checkpoint = file.checkpoint;
+            if (file.failed() && checkpoint != null) {
+                checkpointRepository.updateStatus(file.path, CheckpointStatus.FAILED, result.getErrorMessage());
+            } else if (!file.failed() && !file.paused) {
+                // Rows rejected after the last good row are only known once the whole file has been read
+                quarantine.commitAll();
+                checkpoint.setRowsRejected(quarantine.getCommittedCount());
+                checkpoint.setStatus(CheckpointStatus.COMPLETED);
+                checkpointRepository.save(checkpoint);
+            }
+            synchronized (controlFacade) {
+                IngestionServiceImpl.uploadRejects(controlFacade, quarantine, file.rejectsPath, false, result);
+                if (file.paused && !file.failed()) {
+                    System.out.println("Paused " + file.name + " at row " + file.rows.get() + " (time budget reached)");
+                    result.setPaused(true);
+                } else {
+                    String target = file.failed() ? "/../.error/" : "/../.done/";
+                    controlFacade.moveFile(file.path, sourceDirectory + target + file.name);
+                    result.setSuccess(!file.failed());
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to finish " + file.name + ": " + e.getMessage());
+            if (!file.failed()) {
+                result.setErrorMessage("Failed to move file: " + e.getMessage());
+            }
+        }
+        result.setDurationMillis((System.nanoTime() - file.startNanos) / 1_000_000);
+        if (result.getDurationMillis() > 0) {
+            result.setRowsPerSecond(result.getRowsProcessed() * 1000.0 / result.getDurationMillis());
+        }
+        System.out.println("Finished " + file.name + ": " + result.getRowsProcessed() + " rows"
+                + (file.failed() ? ", error: " + result.getErrorMessage() : ""));
+        onFinished.accept(result);
+    }
+
+    private record DownloadedFile(FileState file, Path localFile) {
+    }
+
+    // Rows with the reader's position after each one, so every commit can checkpoint exactly where it ended
+    private static class RowBatch {
+        final FileState file;
+        final Transaction[] rows;
+        final long[] byteOffsets;
+        final long[] lineNumbers;
+        int size;
+
+        RowBatch(FileState file) {
+            this(file, new Transaction[BATCH_ROWS], new long[BATCH_ROWS], new long[BATCH_ROWS]);
+        }
+
+        RowBatch(FileState file, Transaction[] rows, long[] byteOffsets, long[] lineNumbers) {
+            this.file = file;
+            this.rows = rows;
+            this.byteOffsets = byteOffsets;
+            this.lineNumbers = lineNumbers;
+        }
+
+        void add(Transaction row, long byteOffset, long lineNumber) {
+            rows[size] = row;
+            byteOffsets[size] = byteOffset;
+            lineNumbers[size] = lineNumber;
+            size++;
+        }
+    }
+
+    // Tracks a file in flight; it is finished once parsing is done and every batch it produced is persisted
+    private class FileState {
+        final int index;
+        final String name;
+        final String path;
+        final String rejectsPath;
+        final long startNanos = System.nanoTime();
+        final FileIngestionResult result = new FileIngestionResult();
+        final AtomicLong rows = new AtomicLong();
+        final RowQuarantine quarantine = new RowQuarantine();
+        // Files are downloaded as they are and inflated by the parse stage, keeping the local copy small
+        final CsvCompression compression;
+        // Starts at 1 for the download/parse pass itself; each queued batch adds one more
+        final AtomicInteger pendingBatches = new AtomicInteger(1);
+        // Saved by the download stage; after that only touched by the persist worker owning the file, then finish
+        volatile IngestionCheckpoint checkpoint;
+        volatile boolean failed;
+        volatile boolean paused;
+        volatile boolean finished;
+
+        FileState(int index, String name) {
+            this.index = index;
+            this.name = name;
+            this.path = sourceDirectory + "/" + name;
+            this.rejectsPath = sourceDirectory + "/../.error/" + name + ".rejects.csv";
+            CsvCompression fromName = CsvCompression.forFileName(name);
+            this.compression = fromName != null ? fromName : CsvCompression.NONE;
+            result.setFileName(name);
+        }
+
+        boolean failed() {
+            return failed;
+        }
+
+        synchronized void fail(String errorMessage) {
+            if (!failed) {
+                System.out.println("Error processing file " + name + ": " + errorMessage);
+                failed = true;
+                result.setErrorMessage(errorMessage);
+            }
+        }
+
+        // Stops the file at the deadline; batches already queued are still written
+        synchronized void pause(String errorMessage) {
+            paused = true;
+            if (errorMessage != null) {
+                result.setErrorMessage(errorMessage);
+            }
+        }
+
+        /**
+         * Records a committed batch in the checkpoint, on the batch's own connection. Rejected rows read before
+         * it are written to the rejects file first, since a resumed run never reads those lines again.
+         */
+        void checkpoint(Connection connection, long rows, long byteOffset, long lineNumber) throws SQLException {
+            checkpoint.setRowsCommitted(checkpoint.getRowsCommitted() + rows);
+            checkpoint.setByteOffset(byteOffset);
+            checkpoint.setLineNumber(lineNumber);
+            quarantine.commitUpTo(byteOffset);
+            try {
+                synchronized (controlFacade) {
+                    quarantine.upload(controlFacade, rejectsPath, false);
+                }
+            } catch (Exception e) {
+                throw new SQLException("Failed to write rejected rows to " + rejectsPath + ": " + e.getMessage(), e);
+            }
+            checkpoint.setRowsRejected(quarantine.getCommittedCount());
+            checkpointRepository.save(connection, checkpoint);
+            this.rows.addAndGet(rows);
+        }
+
+        void release() {
+            if (pendingBatches.decrementAndGet() == 0) {
+                finish(this);
+            }
+        }
+    }
+
+    private static class StageStats {
+        private final String stage;
+        private final int workers;
+        private final int queueCapacity;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder inputWaitNanos = new LongAdder();
+        private final LongAdder outputBlockedNanos = new LongAdder();
+        private final LongAdder depthSamples = new LongAdder();
+        private final LongAdder depthTotal = new LongAdder();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+
+        StageStats(String stage, int workers, int queueCapacity) {
+            this.stage = stage;
+            this.workers = workers;
+            this.queueCapacity = queueCapacity;
+        }
+
+        void busy(long startNanos) {
+            busyNanos.add(System.nanoTime() - startNanos);
+        }
+
+        void processed() {
+            items.increment();
+        }
+
+        <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+            long start = System.nanoTime();
+            T item = queue.take();
+            inputWaitNanos.add(System.nanoTime() - start);
+            return item;
+        }
+
+        // Puts into one queue and samples the combined depth of all queues this stage feeds
+        <T> void put(BlockingQueue<T> queue, T item, List<? extends BlockingQueue<?>> outputs) throws InterruptedException {
+            long start = System.nanoTime();
+            queue.put(item);
+            outputBlockedNanos.add(System.nanoTime() - start);
+            int depth = 0;
+            for (BlockingQueue<?> output : outputs) {
+                depth += output.size();
+            }
+            depthSamples.increment();
+            depthTotal.add(depth);
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        PipelineStageMetrics snapshot() {
+            PipelineStageMetrics metrics = new PipelineStageMetrics();
+            metrics.setStage(stage);
+            metrics.setWorkers(workers);
+            metrics.setItemsProcessed(items.sum());
+            metrics.setBusyMillis(busyNanos.sum() / 1_000_000);
+            metrics.setInputWaitMillis(inputWaitNanos.sum() / 1_000_000);
+            metrics.setOutputBlockedMillis(outputBlockedNanos.sum() / 1_000_000);
+            metrics.setQueueCapacity(queueCapacity);
+            metrics.setMaxQueueDepth(maxDepth.get());
+            long samples = depthSamples.sum();
+            metrics.setAverageQueueDepth(samples > 0 ? (double) depthTotal.sum() / samples : 0);
+            return metrics;
+        }
+    }
+}
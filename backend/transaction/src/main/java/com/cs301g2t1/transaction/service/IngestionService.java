@@ -0,0 +1,23 @@
+package com.cs301g2t1.transaction.service;
+
+import com.cs301g2t1.transaction.model.FileIngestionResult;
+import com.cs301g2t1.transaction.model.IngestionOptions;
+import java.util.List;
+import java.util.Map;
+
+public interface IngestionService {
+    /**
+     * Ingests every CSV file in the source directory, moving each to .done or .error when finished.
+     *
+     * @param options per-request overrides; unset fields fall back to the INGEST_* environment defaults
+     */
+    List<FileIngestionResult> ingestDirectory(String sourceDirectory, IngestionOptions options) throws Exception;
+
+    // Creates or upgrades the checkpoint table; safe to run repeatedly
+    void initializeSchema();
+
+    /**
+     * Per-stage timings and queue occupancy from the most recent pipelined run, keyed by metric group.
+     */
+    Map<String, Object> getMetrics();
+}
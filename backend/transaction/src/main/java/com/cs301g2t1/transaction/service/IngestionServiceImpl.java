@@ -0,0 +1,545 @@
+package com.cs301g2t1.transaction.service;
+
+import com.cs301g2t1.transaction.model.CheckpointStatus;
+import com.cs301g2t1.transaction.model.FileIngestionResult;
+import com.cs301g2t1.transaction.model.FileWatermark;
+import com.cs301g2t1.transaction.model.IngestMode;
+import com.cs301g2t1.transaction.model.IngestionCheckpoint;
+import com.cs301g2t1.transaction.model.IngestionOptions;
+import com.cs301g2t1.transaction.model.PipelineStageMetrics;
+import com.cs301g2t1.transaction.model.SourceFile;
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.repository.BatchCommitListener;
+import com.cs301g2t1.transaction.repository.ConnectionPool;
+import com.cs301g2t1.transaction.repository.IngestionCheckpointRepository;
+import com.cs301g2t1.transaction.repository.IngestionCheckpointRepositoryImpl;
+import com.cs301g2t1.transaction.repository.IngestionWatermarkRepository;
+import com.cs301g2t1.transaction.repository.IngestionWatermarkRepositoryImpl;
+import com.cs301g2t1.transaction.utils.CsvCompression;
+import com.cs301g2t1.transaction.utils.EnvUtils;
+import com.cs301g2t1.transaction.utils.SFTPFacade;
+import com.cs301g2t1.transaction.utils.SFTPFacadeImpl;
+import com.cs301g2t1.transaction.utils.TransactionCsvReader;
+import com.cs301g2t1.transaction.utils.TransactionUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class IngestionServiceImpl implements IngestionService {
+
+    // Files at least this large are loaded with COPY unless the caller picks an ingest mode explicitly
+    private static final long COPY_THRESHOLD_BYTES = EnvUtils.getLong("INGEST_COPY_THRESHOLD_BYTES", 10L * 1024 * 1024);
+    // Number of files ingested concurrently; each worker holds its own SFTP channel and DB connection
+    private static final int DEFAULT_PARALLELISM = EnvUtils.getInt("INGEST_PARALLELISM", 1);
+    // Upper bound on the parallelism a request may ask for
+    private static final int MAX_PARALLELISM = EnvUtils.getInt("INGEST_MAX_PARALLELISM", 4);
+    // Overlap download, parse and persist as pipeline stages instead of handling one file at a time
+    private static final boolean PIPELINE_ENABLED = EnvUtils.getBoolean("INGEST_PIPELINE_ENABLED", false);
+    // Checkpoints of completed or failed files are kept this long, then removed at the start of a run
+    private static final int CHECKPOINT_RETENTION_DAYS = EnvUtils.getInt("INGEST_CHECKPOINT_RETENTION_DAYS", 30);
+    // Files changed since the previous poll or modified within this many seconds may still be uploading and are left
+    // for a later poll; 0 ingests every file listed
+    private static final long FILE_STABLE_SECONDS = EnvUtils.getLong("INGEST_FILE_STABLE_SECONDS", 60);
+
+    private final TransactionService transactionService;
+    private final Supplier<SFTPFacade> sftpFacadeFactory;
+    private final IngestionCheckpointRepository checkpointRepository;
+    private final IngestionWatermarkRepository watermarkRepository;
+    private volatile List<PipelineStageMetrics> lastPipelineMetrics;
+
+    public IngestionServiceImpl(TransactionService transactionService) {
+        this(transactionService, SFTPFacadeImpl::new);
+    }
+
+    public IngestionServiceImpl(TransactionService transactionService, Supplier<SFTPFacade> sftpFacadeFactory) {
+        this(transactionService, sftpFacadeFactory, IngestionCheckpointRepositoryImpl.getInstance(),
+                IngestionWatermarkRepositoryImpl.getInstance());
+    }
+
+    public IngestionServiceImpl(TransactionService transactionService, Supplier<SFTPFacade> sftpFacadeFactory,
+                                IngestionCheckpointRepository checkpointRepository,
+                                IngestionWatermarkRepository watermarkRepository) {
+        this.transactionService = transactionService;
+        this.sftpFacadeFactory = sftpFacadeFactory;
+        this.checkpointRepository = checkpointRepository;
+        this.watermarkRepository = watermarkRepository;
+    }
+
+    /**
+     * Only files that are new since earlier polls and no longer being written are ingested, so the directory can be
+     * polled every few minutes. A poll that finds another container already polling the directory does nothing.
+     */
+    @Override
+    public List<FileIngestionResult> ingestDirectory(String sourceDirectory, IngestionOptions options) throws Exception {
+        Optional<IngestionWatermarkRepository.DirectoryLock> lock = watermarkRepository.tryLockDirectory(sourceDirectory);
+        if (lock.isEmpty()) {
+            System.out.println("Skipping poll of " + sourceDirectory + ": another poll is still running");
+            return new ArrayList<>();
+        }
+        try (IngestionWatermarkRepository.DirectoryLock held = lock.get()) {
+            return ingestNewFiles(sourceDirectory, options);
+        }
+    }
+
+    private List<FileIngestionResult> ingestNewFiles(String sourceDirectory, IngestionOptions options) throws Exception {
+        IngestMode ingestMode = options.getIngestMode();
+        int workers = limitParallelism(options.getParallelism() != null ? options.getParallelism() : DEFAULT_PARALLELISM);
+        boolean pipeline = options.getPipeline() != null ? options.getPipeline() : PIPELINE_ENABLED;
+        long deadline = options.getDeadline() != null ? options.getDeadline() : Long.MAX_VALUE;
+
+        // Make sure this month's partitions exist before rows start landing in the default partition
+        transactionService.ensurePartitions();
+        Instant retentionCutoff = Instant.now().minus(Duration.ofDays(CHECKPOINT_RETENTION_DAYS));
+        int expired = checkpointRepository.deleteFinishedBefore(retentionCutoff);
+        if (expired > 0) {
+            System.out.println("Removed " + expired + " expired ingestion checkpoints");
+        }
+        expired = watermarkRepository.deleteNotSeenSince(retentionCutoff);
+        if (expired > 0) {
+            System.out.println("Removed " + expired + " expired ingestion watermarks");
+        }
+
+        List<String> csvFiles;
+        Consumer<FileIngestionResult> recordIngested;
+        try (SFTPFacade sftpFacade = sftpFacadeFactory.get()) {
+            sftpFacade.connect();
+            Map<String, SourceFile> newFiles = pollNewFiles(sftpFacade, sourceDirectory);
+            csvFiles = new ArrayList<>(newFiles.keySet());
+            recordIngested = result -> markIngested(sourceDirectory, newFiles.get(result.getFileName()), result);
+
+            if (pipeline && !csvFiles.isEmpty()) {
+                // The pipeline only starts files from the top, so files an earlier run left part way through resume here
+                List<FileIngestionResult> results = new ArrayList<>();
+                List<String> freshFiles = new ArrayList<>();
+                for (String csvFile : csvFiles) {
+                    if (checkpointRepository.findByFilePath(sourceDirectory + "/" + csvFile).isPresent()) {
+                        FileIngestionResult result = ingestFile(sftpFacade, sourceDirectory, csvFile, ingestMode, deadline);
+                        recordIngested.accept(result);
+                        results.add(result);
+                    } else {
+                        freshFiles.add(csvFile);
+                    }
+                }
+                if (freshFiles.isEmpty()) {
+                    return results;
+                }
+                IngestionPipeline ingestionPipeline = new IngestionPipeline(transactionService, checkpointRepository,
+                        sftpFacadeFactory, sftpFacade, sourceDirectory, ingestMode, deadline, recordIngested);
+                try {
+                    results.addAll(ingestionPipeline.run(freshFiles));
+                    return results;
+                } finally {
+                    lastPipelineMetrics = ingestionPipeline.getStageMetrics();
+                    System.out.println("Pipeline stages: " + lastPipelineMetrics);
+                }
+            }
+
+            if (workers <= 1 || csvFiles.size() <= 1) {
+                List<FileIngestionResult> results = new ArrayList<>();
+                for (String csvFile : csvFiles) {
+                    FileIngestionResult result = ingestFile(sftpFacade, sourceDirectory, csvFile, ingestMode, deadline);
+                    recordIngested.accept(result);
+                    results.add(result);
+                }
+                return results;
+            }
+        }
+        return ingestInParallel(sourceDirectory, csvFiles, ingestMode, Math.min(workers, csvFiles.size()), deadline,
+                recordIngested);
+    }
+
+    /**
+     * Caps the worker count at INGEST_MAX_PARALLELISM and at one less than the connection pool, since every worker
+     * holds a pooled connection while it persists and the directory lock holds another for the whole poll.
+     */
+    private static int limitParallelism(int requested) {
+        int limit = Math.max(1, Math.min(MAX_PARALLELISM, ConnectionPool.getInstance().getMaximumPoolSize() - 1));
+        if (requested > limit) {
+            System.out.println("Requested parallelism " + requested + " exceeds the limit of " + limit + "; using " + limit);
+            return limit;
+        }
+        return Math.max(1, requested);
+    }
+
+    @Override
+    public void initializeSchema() {
+        checkpointRepository.initializeSchema();
+        watermarkRepository.initializeSchema();
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("lastPipelineRun", lastPipelineMetrics);
+        return metrics;
+    }
+
+    /**
+     * Lists the directory once and compares each CSV file with the watermark earlier polls left for it. Returns the
+     * files to ingest now, in listing order: versions not yet ingested that have stopped changing. Files already
+     * ingested and files still being uploaded are not touched; the latter are picked up by a later poll.
+     */
+    private Map<String, SourceFile> pollNewFiles(SFTPFacade sftpFacade, String sourceDirectory) throws Exception {
+        List<SourceFile> csvFiles = listCsvFiles(sftpFacade, sourceDirectory);
+        Map<String, FileWatermark> watermarks = watermarkRepository.findByDirectory(sourceDirectory);
+        Instant now = Instant.now();
+        watermarkRepository.recordSeen(sourceDirectory, csvFiles, now);
+
+        Map<String, SourceFile> newFiles = new LinkedHashMap<>();
+        List<String> unstable = new ArrayList<>();
+        int alreadyIngested = 0;
+        for (SourceFile file : csvFiles) {
+            FileWatermark watermark = watermarks.get(file.getName());
+            boolean unchanged = watermark != null && watermark.getFileSize() == file.getSize()
+                    && watermark.getModifiedTime() == file.getModifiedTime();
+            if (unchanged && watermark.isIngested()) {
+                alreadyIngested++;
+            } else if (isStable(file, unchanged ? watermark : null, now)) {
+                newFiles.put(file.getName(), file);
+            } else {
+                unstable.add(file.getName());
+            }
+        }
+        System.out.println("Polled " + sourceDirectory + ": " + csvFiles.size() + " CSV files, " + newFiles.size()
+                + " new, " + alreadyIngested + " already ingested, " + unstable.size() + " still changing"
+                + (unstable.isEmpty() ? "" : " " + unstable));
+        return newFiles;
+    }
+
+    /**
+     * A file is taken as completely uploaded once an earlier poll saw this same version (size and modification
+     * time) and either its modification time is at least FILE_STABLE_SECONDS old, or the version was first seen
+     * at least that long ago. A file is never loaded on first sight, however old its modification time: uploads
+     * that stalled, or clients that set the source's time before writing, would otherwise be picked up half
+     * written. The second rule only uses our clock, so files still get picked up when the server's clock runs
+     * ahead.
+     */
+    private static boolean isStable(SourceFile file, FileWatermark sameVersion, Instant now) {
+        if (FILE_STABLE_SECONDS <= 0) {
+            return true;
+        }
+        if (sameVersion == null) {
+            return false;
+        }
+        Instant settledBefore = now.minusSeconds(FILE_STABLE_SECONDS);
+        return file.getModifiedTime() <= settledBefore.getEpochSecond()
+                || !sameVersion.getFirstSeenAt().isAfter(settledBefore);
+    }
+
+    /**
+     * Records a successfully ingested file as soon as it is done, so that a copy left behind (e.g. by a failed move)
+     * is not loaded again, even if a later file of the same poll throws. Files are marked with the version the
+     * poll listed, which the checkpoint matched before loading them.
+     */
+    private void markIngested(String sourceDirectory, SourceFile file, FileIngestionResult result) {
+        if (!result.isSuccess() || file == null) {
+            return;
+        }
+        try {
+            watermarkRepository.markIngested(sourceDirectory, file);
+        } catch (RuntimeException e) {
+            System.out.println("Failed to record " + file.getName() + " as ingested: " + e.getMessage());
+        }
+    }
+
+    // Plain, gzip and zstd CSV files in the directory
+    private static List<SourceFile> listCsvFiles(SFTPFacade sftpFacade, String sourceDirectory) throws Exception {
+        List<SourceFile> csvFiles = new ArrayList<>();
+        for (SourceFile file : sftpFacade.listFileDetails(sourceDirectory, "*")) {
+            if (CsvCompression.forFileName(file.getName()) != null) {
+                csvFiles.add(file);
+            }
+        }
+        return csvFiles;
+    }
+
+    /**
+     * Streams the decompressed CSV from offset, an offset into the decompressed data as reported by the reader.
+     * Plain files are read from the offset directly; compressed ones are inflated from the start and the
+     * decompressed bytes before the offset skipped, which still avoids re-parsing and re-writing those rows.
+     */
+    static InputStream openCsv(SFTPFacade sftpFacade, String filePath, long offset) throws Exception {
+        CsvCompression compression = CsvCompression.forFileName(filePath);
+        if (compression == null) {
+            compression = CsvCompression.NONE;
+        }
+        InputStream inputStream = compression.decompress(
+                sftpFacade.streamFile(filePath, compression.isSeekable() ? offset : 0));
+        if (!compression.isSeekable() && offset > 0) {
+            try {
+                inputStream.skipNBytes(offset);
+            } catch (IOException e) {
+                inputStream.close();
+                throw e;
+            }
+        }
+        return inputStream;
+    }
+
+    // Files at or above the COPY threshold are bulk loaded unless the caller forced a mode
+    static IngestMode resolveIngestMode(IngestMode requested, long fileSize) {
+        if (requested != null) {
+            return requested;
+        }
+        return fileSize >= COPY_THRESHOLD_BYTES ? IngestMode.COPY : IngestMode.BATCH;
+    }
+
+    // Each virtual-thread worker opens its own SFTP connection and pulls files until none are left; onFinished is
+    // called with each file's result as soon as it is done
+    private List<FileIngestionResult> ingestInParallel(String sourceDirectory, List<String> csvFiles, IngestMode ingestMode,
+                                                       int workers, long deadline,
+                                                       Consumer<FileIngestionResult> onFinished) throws Exception {
+        System.out.println("Ingesting " + csvFiles.size() + " files with " + workers + " workers");
+        FileIngestionResult[] results = new FileIngestionResult[csvFiles.size()];
+        AtomicInteger nextFile = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ingest-worker-", 0).factory())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    try (SFTPFacade sftpFacade = sftpFacadeFactory.get()) {
+                        sftpFacade.connect();
+                        int index;
+                        while ((index = nextFile.getAndIncrement()) < csvFiles.size()) {
+                            results[index] = ingestFile(sftpFacade, sourceDirectory, csvFiles.get(index), ingestMode, deadline);
+                            onFinished.accept(results[index]);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    // A worker that cannot connect leaves its files untouched for the next run
+                    System.out.println("Ingestion worker failed: " + e.getMessage());
+                }
+            }
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new FileIngestionResult();
+                results[i].setFileName(csvFiles.get(i));
+                results[i].setErrorMessage("Not processed: ingestion worker failed");
+            }
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Ingests one file and moves it to .done once every row is either committed or rejected, or to .error if
+     * the file cannot be read or written. Malformed rows are skipped and listed in .error/<file>.rejects.csv.
+     *
+     * Progress is checkpointed with every committed batch. A file that was stopped at the deadline, failed, or
+     * was committed but never moved resumes from its checkpoint, provided its size and modification time are
+     * unchanged; otherwise it is read from the start.
+     */
+    private FileIngestionResult ingestFile(SFTPFacade sftpFacade, String sourceDirectory, String csvFile, IngestMode ingestMode,
+                                           long deadline) {
+        String filePath = sourceDirectory + "/" + csvFile;
+        String rejectsPath = sourceDirectory + "/../.error/" + csvFile + ".rejects.csv";
+        FileIngestionResult result = new FileIngestionResult();
+        result.setFileName(csvFile);
+        if (System.currentTimeMillis() >= deadline) {
+            result.setPaused(true);
+            result.setErrorMessage("Not started: time budget exhausted");
+            return result;
+        }
+        long start = System.nanoTime();
+        IngestionCheckpoint checkpoint = null;
+        long rejectedBefore = 0;
+        try (RowQuarantine quarantine = new RowQuarantine()) {
+            try {
+                result.setFileSize(sftpFacade.getFileSize(filePath));
+                result.setIngestMode(resolveIngestMode(ingestMode, result.getFileSize()));
+                checkpoint = startCheckpoint(sftpFacade, filePath, result.getFileSize());
+                result.setResumedFromRow(checkpoint.getRowsCommitted());
+                rejectedBefore = checkpoint.getRowsRejected();
+
+                boolean complete = true;
+                if (checkpoint.getStatus() == CheckpointStatus.COMPLETED) {
+                    System.out.println("Skipping " + csvFile + ": already loaded by an earlier run");
+                } else {
+                    System.out.println("Ingesting " + csvFile + " (" + result.getFileSize() + " bytes) using " + result.getIngestMode()
+                            + (checkpoint.getRowsCommitted() > 0 ? ", resuming after row " + checkpoint.getRowsCommitted() : ""));
+                    complete = persistFile(sftpFacade, checkpoint, quarantine, rejectsPath, result, deadline);
+                    if (complete) {
+                        // Rows rejected after the last good row are only known once the whole file has been read
+                        quarantine.commitAll();
+                        checkpoint.setRowsRejected(rejectedBefore + quarantine.getCommittedCount());
+                        checkpoint.setStatus(CheckpointStatus.COMPLETED);
+                        checkpointRepository.save(checkpoint);
+                    }
+                }
+                uploadRejects(sftpFacade, quarantine, rejectsPath, rejectedBefore > 0, result);
+
+                if (complete) {
+                    // Move file to .done directory
+                    sftpFacade.moveFile(filePath, sourceDirectory + "/../.done/" + csvFile);
+                    result.setSuccess(true);
+                } else {
+                    System.out.println("Paused " + csvFile + " at row " + checkpoint.getRowsCommitted() + " (time budget reached)");
+                    result.setPaused(true);
+                }
+            } catch (Exception e) {
+                System.out.println("Error processing file " + csvFile + ": " + e.getMessage());
+                result.setErrorMessage(e.getMessage());
+                if (checkpoint != null) {
+                    try {
+                        checkpointRepository.updateStatus(filePath, CheckpointStatus.FAILED, e.getMessage());
+                        uploadRejects(sftpFacade, quarantine, rejectsPath, rejectedBefore > 0, result);
+                    } catch (RuntimeException checkpointError) {
+                        System.out.println("Failed to record failure of " + csvFile + ": " + checkpointError.getMessage());
+                    }
+                }
+                try {
+                    // Move file to .error directory
+                    sftpFacade.moveFile(filePath, sourceDirectory + "/../.error/" + csvFile);
+                } catch (Exception moveError) {
+                    System.out.println("Failed to move " + csvFile + " to .error: " + moveError.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to clean up rejects spool for " + csvFile + ": " + e.getMessage());
+        }
+        result.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        if (result.getDurationMillis() > 0) {
+            result.setRowsPerSecond(result.getRowsProcessed() * 1000.0 / result.getDurationMillis());
+        }
+        return result;
+    }
+
+    // Uploads whatever the batches have not; rows are already committed by now, so a failed upload is reported
+    // rather than failing the file
+    static void uploadRejects(SFTPFacade sftpFacade, RowQuarantine quarantine, String rejectsPath, boolean append,
+                               FileIngestionResult result) {
+        result.setRowsRejected(quarantine.getCommittedCount());
+        if (result.getRowsRejected() == 0) {
+            return;
+        }
+        result.setRejectedRowSamples(quarantine.getSamples());
+        System.out.println("Rejected " + result.getRowsRejected() + " rows of " + result.getFileName() + ", see " + rejectsPath);
+        try {
+            quarantine.upload(sftpFacade, rejectsPath, append);
+            result.setRejectsFile(rejectsPath);
+        } catch (Exception e) {
+            System.out.println("Failed to upload " + rejectsPath + ": " + e.getMessage());
+            result.setErrorMessage("Failed to upload rejected rows: " + e.getMessage());
+        }
+    }
+
+    // Returns the checkpoint to continue from if it belongs to this exact file, otherwise starts a new one
+    private IngestionCheckpoint startCheckpoint(SFTPFacade sftpFacade, String filePath, long fileSize) throws Exception {
+        long modifiedTime = sftpFacade.getModifiedTime(filePath);
+        IngestionCheckpoint existing = checkpointRepository.findByFilePath(filePath).orElse(null);
+        if (existing != null && existing.getFileSize() == fileSize && existing.getModifiedTime() == modifiedTime) {
+            return existing;
+        }
+        IngestionCheckpoint checkpoint = newCheckpoint(filePath, fileSize, modifiedTime);
+        checkpointRepository.save(checkpoint);
+        return checkpoint;
+    }
+
+    // An unsaved checkpoint positioned at the first data row of the file
+    static IngestionCheckpoint newCheckpoint(String filePath, long fileSize, long modifiedTime) {
+        IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+        checkpoint.setFilePath(filePath);
+        checkpoint.setFileSize(fileSize);
+        checkpoint.setModifiedTime(modifiedTime);
+        checkpoint.setLineNumber(1);
+        checkpoint.setStatus(CheckpointStatus.IN_PROGRESS);
+        return checkpoint;
+    }
+
+    /**
+     * Parses the file as a stream from the checkpoint onwards and persists it incrementally, handing malformed
+     * rows to the quarantine. Each batch commits together with the checkpoint recording it, and the rows it
+     * rejected are written to the rejects file before that commit: a resumed run never reads those lines again,
+     * so they must not depend on an upload at the end of the file. Returns false if the deadline stopped it
+     * before the end of the file.
+     */
+    private boolean persistFile(SFTPFacade sftpFacade, IngestionCheckpoint checkpoint, RowQuarantine quarantine,
+                                String rejectsPath, FileIngestionResult result, long deadline) throws Exception {
+        long rejectedBefore = checkpoint.getRowsRejected();
+        boolean resume = checkpoint.getByteOffset() > 0;
+        try (InputStream inputStream = openCsv(sftpFacade, checkpoint.getFilePath(), checkpoint.getByteOffset());
+             TransactionCsvReader reader = resume
+                     ? new TransactionCsvReader(inputStream, checkpoint.getHeader(), checkpoint.getByteOffset(), checkpoint.getLineNumber())
+                     : TransactionUtils.streamCsvTransactions(inputStream)) {
+            reader.setRejectHandler(quarantine);
+            checkpoint.setHeader(reader.getHeader());
+            checkpoint.setStatus(CheckpointStatus.IN_PROGRESS);
+            checkpoint.setErrorMessage(null);
+            BatchCommitListener listener = (connection, rows) -> {
+                checkpoint.setRowsCommitted(checkpoint.getRowsCommitted() + rows);
+                checkpoint.setByteOffset(reader.getByteOffset());
+                checkpoint.setLineNumber(reader.getLineNumber());
+                quarantine.commitUpTo(reader.getByteOffset());
+                try {
+                    // A failed upload rolls the batch back, so its rejected lines are read again on the next run
+                    quarantine.upload(sftpFacade, rejectsPath, rejectedBefore > 0);
+                } catch (Exception e) {
+                    throw new SQLException("Failed to write rejected rows to " + rejectsPath + ": " + e.getMessage(), e);
+                }
+                checkpoint.setRowsRejected(rejectedBefore + quarantine.getCommittedCount());
+                checkpointRepository.save(connection, checkpoint);
+            };
+
+            DeadlineIterator rows = new DeadlineIterator(reader, deadline);
+            if (result.getIngestMode() == IngestMode.COPY) {
+                // Bulk load through a staging table; generated ids are not returned in this mode
+                result.setRowsProcessed(transactionService.bulkLoadTransactions(rows, listener));
+            } else {
+                // Insert transactions into the database in batches as they are parsed
+                result.setRowsProcessed(transactionService.createTransactions(rows, listener));
+            }
+            return !rows.stopped;
+        }
+    }
+
+    // Ends iteration early once the deadline passes, so the batch in progress commits and no new one starts
+    private static class DeadlineIterator implements Iterator<Transaction> {
+        private final Iterator<Transaction> source;
+        private final long deadline;
+        boolean stopped;
+
+        DeadlineIterator(Iterator<Transaction> source, long deadline) {
+            this.source = source;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stopped || !source.hasNext()) {
+                return false;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                stopped = true;
+            }
+            return !stopped;
+        }
+
+        @Override
+        public Transaction next() {
+            return source.next();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.cs301g2t1.transaction.service;
+
+import com.cs301g2t1.transaction.utils.CsvRowException;
+import com.cs301g2t1.transaction.utils.SFTPFacade;
+import com.cs301g2t1.transaction.utils.TransactionCsvReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Collects the malformed rows of one file for its .error/<file>.rejects.csv (Line,Reason,Row).
+ *
+ * Rejections are held back until the good rows read before them are committed, so a file resumed from a
+ * checkpoint never reports the same line twice. Committed rejections are spooled to a local temp file, which
+ * keeps memory flat however many rows are bad, and each upload appends only what the previous one did not.
+ */
+class RowQuarantine implements TransactionCsvReader.RejectHandler, Closeable {
+
+    private static final String HEADER = "Line,Reason,Row\n";
+    // Reasons echoed in the dailyFetch response; the rejects file has the rest
+    private static final int MAX_SAMPLES = 10;
+
+    private final Deque<Rejection> pending = new ArrayDeque<>();
+    private final List<String> samples = new ArrayList<>();
+    private Path spoolFile;
+    private Writer spool;
+    private long committed;
+    // Spool bytes already written to the rejects file
+    private long uploadedBytes;
+
+    @Override
+    public synchronized void reject(CsvRowException error, long byteOffset) {
+        pending.add(new Rejection(error, byteOffset));
+    }
+
+    // Keeps every rejection up to byteOffset, i.e. those read before the rows just committed
+    synchronized void commitUpTo(long byteOffset) {
+        while (!pending.isEmpty() && pending.peekFirst().byteOffset <= byteOffset) {
+            write(pending.removeFirst().error);
+        }
+    }
+
+    // Keeps every rejection read so far; used once the whole file is committed
+    synchronized void commitAll() {
+        commitUpTo(Long.MAX_VALUE);
+    }
+
+    synchronized long getCommittedCount() {
+        return committed;
+    }
+
+    synchronized List<String> getSamples() {
+        return new ArrayList<>(samples);
+    }
+
+    /**
+     * Writes the rejections committed since the previous upload to the rejects file. The first upload replaces
+     * the file and starts with the header, unless resumed is set because an earlier run of the same file already
+     * wrote both. Does nothing if no row was rejected since.
+     */
+    synchronized void upload(SFTPFacade sftpFacade, String destinationPath, boolean resumed) throws Exception {
+        if (spool == null) {
+            return;
+        }
+        spool.flush();
+        long size = Files.size(spoolFile);
+        if (size == uploadedBytes) {
+            return;
+        }
+        boolean append = resumed || uploadedBytes > 0;
+        try (InputStream rows = Files.newInputStream(spoolFile)) {
+            rows.skipNBytes(uploadedBytes);
+            try (InputStream content = append ? rows
+                     : new SequenceInputStream(new ByteArrayInputStream(HEADER.getBytes(StandardCharsets.UTF_8)), rows)) {
+                sftpFacade.uploadFile(content, destinationPath, append);
+            }
+        }
+        uploadedBytes = size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (spool != null) {
+            spool.close();
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    private void write(CsvRowException error) {
+        try {
+            if (spool == null) {
+                spoolFile = Files.createTempFile("rejects-", ".csv");
+                spool = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8);
+            }
+            spool.write(Long.toString(error.getLineNumber()));
+            spool.write(',');
+            spool.write(quote(error.getReason()));
+            spool.write(',');
+            spool.write(quote(error.getRawLine()));
+            spool.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool rejected row", e);
+        }
+        committed++;
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add(error.getMessage());
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private record Rejection(CsvRowException error, long byteOffset) {
+    }
+}
@@ -1,13 +1,44 @@
 package com.cs301g2t1.transaction.service;
 
+import com.cs301g2t1.transaction.model.BatchResult;
+import com.cs301g2t1.transaction.model.StatusTransition;
+import com.cs301g2t1.transaction.model.StatusTransitionResult;
 import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionPage;
+import com.cs301g2t1.transaction.model.TransactionQuery;
+import com.cs301g2t1.transaction.model.TransactionSummary;
+import com.cs301g2t1.transaction.repository.BatchCommitListener;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface TransactionService {
+    void initializeSchema();
     List<Transaction> getAllTransactions();
+    TransactionPage getTransactionPage(TransactionQuery query);
+    TransactionSummary getTransactionSummary(TransactionQuery query);
+    long streamTransactions(TransactionQuery query, Consumer<Transaction> action);
     Transaction getTransactionById(Long id);
     List<Transaction> getTransactionsByClientId(Long clientId);
     Transaction createTransaction(Transaction transaction);
+    List<Transaction> createTransactions(List<Transaction> transactions);
+    long createTransactions(Iterator<Transaction> transactions);
+    long bulkLoadTransactions(Iterator<Transaction> transactions);
+    // Checkpointable variants: listener runs inside each batch's transaction just before it commits
+    long createTransactions(Iterator<Transaction> transactions, BatchCommitListener listener);
+    long bulkLoadTransactions(Iterator<Transaction> transactions, BatchCommitListener listener);
     Transaction updateTransaction(Long id, Transaction transaction);
     void deleteTransaction(Long id);
+    // Each writes its valid items in one database transaction and reports the outcome of every item
+    BatchResult createTransactionBatch(List<Transaction> transactions);
+    BatchResult updateTransactionBatch(List<Transaction> transactions);
+    BatchResult deleteTransactionBatch(List<Long> ids);
+    StatusTransitionResult transitionStatus(StatusTransition transition);
+    List<String> ensurePartitions();
+    List<String> detachPartitionsBefore(LocalDate cutoff, boolean drop);
+    Map<String, Object> getMetrics();
+    // Drops every cached read and the cached table layout, e.g. around a snapshot of this container
+    void clearCaches();
 }
\ No newline at end of file
@@ -1,13 +1,53 @@
 package com.cs301g2t1.transaction.service;
 
+import com.cs301g2t1.transaction.model.BatchItemResult;
+import com.cs301g2t1.transaction.model.BatchResult;
+import com.cs301g2t1.transaction.model.DailyTransactionRollup;
+import com.cs301g2t1.transaction.model.StatusTransition;
+import com.cs301g2t1.transaction.model.StatusTransitionResult;
 import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionPage;
+import com.cs301g2t1.transaction.model.TransactionQuery;
+import com.cs301g2t1.transaction.model.TransactionStatus;
+import com.cs301g2t1.transaction.model.TransactionSummary;
+import com.cs301g2t1.transaction.model.TransactionType;
+import com.cs301g2t1.transaction.repository.BatchCommitListener;
+import com.cs301g2t1.transaction.repository.ConnectionPool;
 import com.cs301g2t1.transaction.repository.TransactionRepository;
 import com.cs301g2t1.transaction.repository.TransactionRepositoryImpl;
+import com.cs301g2t1.transaction.utils.EnvUtils;
+import com.cs301g2t1.transaction.utils.TtlLruCache;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class TransactionServiceImpl implements TransactionService {
 
+    // Page size when the caller asks for a page without a limit, and the largest page served
+    private static final int PAGE_DEFAULT_LIMIT = EnvUtils.getInt("PAGE_DEFAULT_LIMIT", 100);
+    private static final int PAGE_MAX_LIMIT = EnvUtils.getInt("PAGE_MAX_LIMIT", 1000);
+
+    // Ids listed in a TRANSITION_STATUS response; the count always covers every row moved
+    private static final int STATUS_TRANSITION_MAX_IDS = EnvUtils.getInt("STATUS_TRANSITION_MAX_IDS", 10_000);
+
+    // Read-through caches shared by every handler in the container; a size of 0 disables a cache.
+    // Writes made by other containers become visible here once CACHE_TTL_MS has passed.
+    private static final long CACHE_TTL_MS = EnvUtils.getLong("CACHE_TTL_MS", 30_000);
+    private static final TtlLruCache<Long, Transaction> transactionCache =
+            new TtlLruCache<>(EnvUtils.getInt("CACHE_MAX_TRANSACTIONS", 10_000), CACHE_TTL_MS);
+    private static final TtlLruCache<Long, List<Transaction>> clientCache =
+            new TtlLruCache<>(EnvUtils.getInt("CACHE_MAX_CLIENTS", 500), CACHE_TTL_MS);
+
     private TransactionRepository transactionRepository = TransactionRepositoryImpl.getInstance();
 
     @Override
@@ -15,32 +55,142 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionRepository.findAll();
     }
 
+    @Override
+    public TransactionPage getTransactionPage(TransactionQuery query) {
+        int limit = query.getLimit() != null ? query.getLimit() : PAGE_DEFAULT_LIMIT;
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        limit = Math.min(limit, PAGE_MAX_LIMIT);
+
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (query.getAfter() != null && !query.getAfter().isEmpty()) {
+            // Cursor is base64url("<date>:<id>") of the last row on the previous page
+            try {
+                String cursor = new String(Base64.getUrlDecoder().decode(query.getAfter()), StandardCharsets.UTF_8);
+                int separator = cursor.indexOf(':');
+                afterDate = LocalDate.parse(cursor.substring(0, separator));
+                afterId = Long.valueOf(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + query.getAfter());
+            }
+        }
+
+        // One extra row tells us whether another page follows without a COUNT query
+        List<Transaction> rows = transactionRepository.findPage(query, afterDate, afterId, limit + 1);
+        TransactionPage page = new TransactionPage();
+        page.setLimit(limit);
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Transaction last = rows.get(limit - 1);
+            String cursor = last.getDate() + ":" + last.getId();
+            page.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+        }
+        page.setItems(rows);
+        return page;
+    }
+
+    @Override
+    public TransactionSummary getTransactionSummary(TransactionQuery query) {
+        TransactionSummary summary = new TransactionSummary();
+        summary.setClientId(query.getClientId());
+        summary.setFromDate(query.getFromDate());
+        summary.setToDate(query.getToDate());
+        summary.setDaily(transactionRepository.findDailyRollup(query));
+        for (DailyTransactionRollup day : summary.getDaily()) {
+            // Pending and failed transactions have not moved any money; they stay visible in the daily breakdown
+            if (day.getStatus() != TransactionStatus.COMPLETED) {
+                continue;
+            }
+            if (day.getTransactionType() == TransactionType.D) {
+                summary.setDepositCount(summary.getDepositCount() + day.getCount());
+                summary.setDepositTotal(summary.getDepositTotal() + day.getTotalAmount());
+            } else {
+                summary.setWithdrawalCount(summary.getWithdrawalCount() + day.getCount());
+                summary.setWithdrawalTotal(summary.getWithdrawalTotal() + day.getTotalAmount());
+            }
+        }
+        return summary;
+    }
+
+    @Override
+    public long streamTransactions(TransactionQuery query, Consumer<Transaction> action) {
+        return transactionRepository.forEach(query, action);
+    }
+
     @Override
     public Transaction getTransactionById(Long id) {
-        return transactionRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found with ID: " + id));
+        Transaction transaction = transactionCache.get(id, key -> transactionRepository.findById(key).orElse(null));
+        if (transaction == null) {
+            throw new IllegalArgumentException("Transaction not found with ID: " + id);
+        }
+        return transaction;
     }
     
     @Override
     public List<Transaction> getTransactionsByClientId(Long clientId) {
-        return transactionRepository.findAllByClientId(clientId);
+        // Cached lists are shared between callers, so they are handed out read-only
+        return clientCache.get(clientId, key -> List.copyOf(transactionRepository.findAllByClientId(key)));
     }
 
     @Override
     public Transaction createTransaction(Transaction transaction) {
-        return transactionRepository.save(transaction);
+        boolean newRow = transaction.getId() == null;
+        Transaction saved = transactionRepository.save(transaction);
+        if (newRow) {
+            clientCache.invalidate(saved.getClientId());
+        } else {
+            // An upsert may have moved an existing row away from a client we cannot identify here
+            invalidateTransaction(saved.getId());
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Transaction> createTransactions(List<Transaction> transactions) {
+        try {
+            return transactionRepository.saveAll(transactions);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public long createTransactions(Iterator<Transaction> transactions) {
+        return createTransactions(transactions, null);
+    }
+
+    @Override
+    public long bulkLoadTransactions(Iterator<Transaction> transactions) {
+        return bulkLoadTransactions(transactions, null);
+    }
+
+    @Override
+    public long createTransactions(Iterator<Transaction> transactions, BatchCommitListener listener) {
+        try {
+            return transactionRepository.saveAll(transactions, listener);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public long bulkLoadTransactions(Iterator<Transaction> transactions, BatchCommitListener listener) {
+        try {
+            return transactionRepository.copyAll(transactions, listener);
+        } finally {
+            invalidateAll();
+        }
     }
 
     @Override
     public Transaction updateTransaction(Long id, Transaction updatedTransaction) {
-        Transaction existingTransaction = transactionRepository.findById(id)
+        updatedTransaction.setId(id);
+        Transaction saved = transactionRepository.update(updatedTransaction)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with ID: " + id));
-        existingTransaction.setClientId(updatedTransaction.getClientId());
-        existingTransaction.setTransactionType(updatedTransaction.getTransactionType());
-        existingTransaction.setAmount(updatedTransaction.getAmount());
-        existingTransaction.setDate(updatedTransaction.getDate());
-        existingTransaction.setStatus(updatedTransaction.getStatus());
-        return transactionRepository.save(existingTransaction);
+        invalidateTransaction(id);
+        return saved;
     }
 
     @Override
@@ -49,5 +199,248 @@ public class TransactionServiceImpl implements TransactionService {
             throw new IllegalArgumentException("Transaction not found with ID: " + id);
         }
         transactionRepository.deleteById(id);
+        invalidateTransaction(id);
+    }
+
+    @Override
+    public BatchResult createTransactionBatch(List<Transaction> transactions) {
+        BatchItemResult[] results = new BatchItemResult[transactions.size()];
+        List<Transaction> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        Map<Long, Integer> lastIndexById = lastIndexById(transactions);
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            String problem = missingField(transaction);
+            if (problem == null && transaction.getId() != null && lastIndexById.get(transaction.getId()) != i) {
+                problem = "Superseded by a later item with the same id";
+            }
+            if (problem != null) {
+                results[i] = failure(i, transaction != null ? transaction.getId() : null, problem);
+            } else {
+                valid.add(transaction);
+                validIndexes.add(i);
+            }
+        }
+
+        try {
+            transactionRepository.saveBatch(valid);
+        } finally {
+            invalidateAll();
+        }
+        for (int v = 0; v < valid.size(); v++) {
+            results[validIndexes.get(v)] = success(validIndexes.get(v), valid.get(v).getId(), valid.get(v));
+        }
+        return batchResult(results);
+    }
+
+    @Override
+    public BatchResult updateTransactionBatch(List<Transaction> transactions) {
+        BatchItemResult[] results = new BatchItemResult[transactions.size()];
+        List<Transaction> valid = new ArrayList<>();
+        Map<Long, Integer> lastIndexById = lastIndexById(transactions);
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            String problem = missingField(transaction);
+            if (problem == null && transaction.getId() == null) {
+                problem = "Transaction ID is missing";
+            } else if (problem == null && lastIndexById.get(transaction.getId()) != i) {
+                problem = "Superseded by a later item with the same id";
+            }
+            if (problem != null) {
+                results[i] = failure(i, transaction != null ? transaction.getId() : null, problem);
+            } else {
+                valid.add(transaction);
+            }
+        }
+
+        Map<Long, Transaction> updated = new HashMap<>();
+        try {
+            for (Transaction transaction : transactionRepository.updateAll(valid)) {
+                updated.put(transaction.getId(), transaction);
+            }
+        } finally {
+            for (Transaction transaction : valid) {
+                transactionCache.invalidate(transaction.getId());
+            }
+            clientCache.invalidateAll();
+        }
+        for (Transaction transaction : valid) {
+            int index = lastIndexById.get(transaction.getId());
+            Transaction saved = updated.get(transaction.getId());
+            results[index] = saved != null ? success(index, saved.getId(), saved)
+                    : failure(index, transaction.getId(), "Transaction not found with ID: " + transaction.getId());
+        }
+        return batchResult(results);
+    }
+
+    @Override
+    public BatchResult deleteTransactionBatch(List<Long> ids) {
+        List<Long> valid = new ArrayList<>();
+        for (Long id : ids) {
+            if (id != null) {
+                valid.add(id);
+            }
+        }
+
+        Set<Long> deleted;
+        try {
+            deleted = new HashSet<>(transactionRepository.deleteAllById(valid));
+        } finally {
+            for (Long id : valid) {
+                transactionCache.invalidate(id);
+            }
+            clientCache.invalidateAll();
+        }
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = failure(i, null, "Transaction ID is missing");
+            } else if (deleted.contains(id)) {
+                results[i] = success(i, id, null);
+            } else {
+                results[i] = failure(i, id, "Transaction not found with ID: " + id);
+            }
+        }
+        return batchResult(results);
+    }
+
+    @Override
+    public StatusTransitionResult transitionStatus(StatusTransition transition) {
+        if (transition.getToStatus() == null) {
+            throw new IllegalArgumentException("newStatus is required");
+        }
+        if (transition.getFromStatus() == null) {
+            transition.setFromStatus(TransactionStatus.PENDING);
+        }
+        if (transition.getFromStatus() == transition.getToStatus()) {
+            throw new IllegalArgumentException("newStatus must differ from fromStatus");
+        }
+        // Refuse to move every row in the table in one go
+        if ((transition.getIds() == null || transition.getIds().isEmpty()) && transition.getClientId() == null
+                && transition.getFromDate() == null && transition.getToDate() == null) {
+            throw new IllegalArgumentException("At least one of transactionIds, clientId, fromDate or toDate is required");
+        }
+
+        List<Long> ids;
+        try {
+            ids = transactionRepository.updateStatus(transition);
+        } finally {
+            invalidateAll();
+        }
+        StatusTransitionResult result = new StatusTransitionResult();
+        result.setFromStatus(transition.getFromStatus());
+        result.setToStatus(transition.getToStatus());
+        result.setUpdated(ids.size());
+        result.setIdsTruncated(ids.size() > STATUS_TRANSITION_MAX_IDS);
+        result.setIds(result.isIdsTruncated() ? ids.subList(0, STATUS_TRANSITION_MAX_IDS) : ids);
+        return result;
+    }
+
+    // Names the first required field a batch item lacks, or returns null if it has them all
+    private static String missingField(Transaction transaction) {
+        if (transaction == null) {
+            return "Transaction data is missing";
+        }
+        if (transaction.getClientId() == null) {
+            return "Client ID is required";
+        }
+        if (transaction.getTransactionType() == null) {
+            return "Transaction type is required";
+        }
+        if (transaction.getDate() == null) {
+            return "Transaction date is required";
+        }
+        if (transaction.getStatus() == null) {
+            return "Status is required";
+        }
+        return null;
+    }
+
+    // A row can only be written once per statement, so of several items with the same id the last one wins
+    private static Map<Long, Integer> lastIndexById(List<Transaction> transactions) {
+        Map<Long, Integer> lastIndexById = new HashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (transaction != null && transaction.getId() != null) {
+                lastIndexById.put(transaction.getId(), i);
+            }
+        }
+        return lastIndexById;
+    }
+
+    private static BatchItemResult success(int index, Long id, Transaction transaction) {
+        BatchItemResult result = new BatchItemResult();
+        result.setIndex(index);
+        result.setId(id);
+        result.setSuccess(true);
+        result.setTransaction(transaction);
+        return result;
+    }
+
+    private static BatchItemResult failure(int index, Long id, String errorMessage) {
+        BatchItemResult result = new BatchItemResult();
+        result.setIndex(index);
+        result.setId(id);
+        result.setErrorMessage(errorMessage);
+        return result;
+    }
+
+    private static BatchResult batchResult(BatchItemResult[] results) {
+        BatchResult batch = new BatchResult();
+        batch.setItems(List.of(results));
+        for (BatchItemResult result : results) {
+            if (result.isSuccess()) {
+                batch.setSucceeded(batch.getSucceeded() + 1);
+            } else {
+                batch.setFailed(batch.getFailed() + 1);
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public void initializeSchema() {
+        transactionRepository.initializeSchema();
+    }
+
+    @Override
+    public List<String> ensurePartitions() {
+        return transactionRepository.ensurePartitions();
+    }
+
+    @Override
+    public List<String> detachPartitionsBefore(LocalDate cutoff, boolean drop) {
+        try {
+            return transactionRepository.detachPartitionsBefore(cutoff, drop);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    // The row's previous client is not known, so every cached client list is dropped along with the row
+    private void invalidateTransaction(Long id) {
+        transactionCache.invalidate(id);
+        clientCache.invalidateAll();
+    }
+
+    @Override
+    public void clearCaches() {
+        invalidateAll();
+        transactionRepository.resetLayout();
+    }
+
+    private void invalidateAll() {
+        transactionCache.invalidateAll();
+        clientCache.invalidateAll();
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("connectionPool", ConnectionPool.getInstance().getMetrics());
+        metrics.put("transactionCache", transactionCache.getMetrics());
+        metrics.put("clientCache", clientCache.getMetrics());
+        return metrics;
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+
+/**
+ * Compression of an ingestible CSV file, recognised by its suffix. Compressed files are inflated as a
+ * stream between the remote read and the parser, so only the compressed bytes cross the network and the
+ * decompressed file never exists in memory or on disk.
+ */
+public enum CsvCompression {
+    NONE(".csv"),
+    GZIP(".csv.gz"),
+    ZSTD(".csv.zst");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String suffix;
+
+    CsvCompression(String suffix) {
+        this.suffix = suffix;
+    }
+
+    // The compression of an ingestible file name, or null if it is not a (compressed) CSV
+    public static CsvCompression forFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        for (CsvCompression compression : values()) {
+            if (lower.endsWith(compression.suffix)) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    // Only uncompressed files can be read from an arbitrary byte offset
+    public boolean isSeekable() {
+        return this == NONE;
+    }
+
+    /**
+     * Wraps in so that reads return the decompressed CSV. Closing the result closes in, and in is closed
+     * here if the compressed header cannot be read.
+     */
+    public InputStream decompress(InputStream in) throws IOException {
+        try {
+            switch (this) {
+                case GZIP:
+                    return new GZIPInputStream(in, BUFFER_SIZE);
+                case ZSTD:
+                    return new ZstdInputStreamNoFinalizer(in);
+                default:
+                    return in;
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.cs301g2t1.transaction.utils;
+
+/**
+ * Thrown when a single CSV row cannot be turned into a transaction.
+ *
+ * The tokenizer has already moved past the offending row when this is thrown, so callers may log
+ * or quarantine it and keep reading.
+ */
+public class CsvRowException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long lineNumber;
+    private final String reason;
+    private final String rawLine;
+
+    public CsvRowException(long lineNumber, String reason, String rawLine) {
+        super("Line " + lineNumber + ": " + reason);
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+        this.rawLine = rawLine;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getRawLine() {
+        return rawLine;
+    }
+}
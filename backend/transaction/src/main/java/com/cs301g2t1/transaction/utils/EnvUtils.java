@@ -0,0 +1,55 @@
+package com.cs301g2t1.transaction.utils;
+
+public class EnvUtils {
+
+    /**
+     * Reads an integer environment variable, falling back to the default when unset or malformed.
+     */
+    public static int getInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + name + ": " + value + ", using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a long environment variable, falling back to the default when unset or malformed.
+     */
+    public static long getLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + name + ": " + value + ", using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a boolean environment variable ("true"/"false"), falling back to the default when unset.
+     */
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Reads a string environment variable, falling back to the default when unset or blank.
+     */
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+}
@@ -0,0 +1,189 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.cs301g2t1.transaction.model.SourceFile;
+
+/**
+ * SFTPFacade over a directory on the local filesystem, for files dropped on the box itself and for
+ * benchmarking ingestion without an SFTP server. Paths are the same strings the SFTP implementation
+ * receives (e.g. SFTP_TARGET + "/../.done/" + file) and are resolved against the local filesystem.
+ *
+ * Reads are served from memory-mapped windows of the file, so bytes go from the page cache straight into
+ * the parser's buffer without a read() system call per chunk. Moves are atomic renames.
+ */
+public class LocalDirectoryFacade implements SFTPFacade {
+
+    // Size of each mapped region; a file is mapped one window at a time as it is read
+    private static final long MAP_WINDOW_BYTES = EnvUtils.getLong("LOCAL_MAP_WINDOW_BYTES", 64L * 1024 * 1024);
+
+    @Override
+    public void connect() throws Exception {
+        // Nothing to connect to
+    }
+
+    @Override
+    public List<String> listFiles(String directory, String filePattern) throws Exception {
+        List<String> fileList = new ArrayList<>();
+        for (SourceFile file : listFileDetails(directory, filePattern)) {
+            fileList.add(file.getName());
+        }
+        return fileList;
+    }
+
+    @Override
+    public List<SourceFile> listFileDetails(String directory, String filePattern) throws Exception {
+        List<SourceFile> fileList = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(Path.of(directory), filePattern)) {
+            for (Path entry : entries) {
+                String filename = entry.getFileName().toString();
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                // Skip directories and hidden files, as the SFTP listing does
+                if (attributes.isRegularFile() && !filename.startsWith(".")) {
+                    SourceFile file = new SourceFile();
+                    file.setName(filename);
+                    file.setSize(attributes.size());
+                    file.setModifiedTime(attributes.lastModifiedTime().to(TimeUnit.SECONDS));
+                    fileList.add(file);
+                }
+            }
+        }
+        fileList.sort(Comparator.comparing(SourceFile::getName));
+        return fileList;
+    }
+
+    @Override
+    public long getFileSize(String filePath) throws Exception {
+        return Files.size(Path.of(filePath));
+    }
+
+    @Override
+    public long getModifiedTime(String filePath) throws Exception {
+        return Files.getLastModifiedTime(Path.of(filePath)).to(TimeUnit.SECONDS);
+    }
+
+    @Override
+    public InputStream downloadFile(String filePath) throws Exception {
+        return streamFile(filePath, 0);
+    }
+
+    @Override
+    public InputStream streamFile(String filePath) throws Exception {
+        return streamFile(filePath, 0);
+    }
+
+    @Override
+    public InputStream streamFile(String filePath, long offset) throws Exception {
+        return new MappedFileInputStream(FileChannel.open(Path.of(filePath), StandardOpenOption.READ), offset);
+    }
+
+    @Override
+    public void uploadFile(InputStream content, String destinationPath, boolean append) throws Exception {
+        Path destination = Path.of(destinationPath).normalize();
+        Files.createDirectories(destination.getParent());
+        try (OutputStream out = append
+                ? Files.newOutputStream(destination, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newOutputStream(destination)) {
+            content.transferTo(out);
+        }
+    }
+
+    @Override
+    public void moveFile(String sourcePath, String destinationPath) throws Exception {
+        Path source = Path.of(sourcePath);
+        Path destination = Path.of(destinationPath).normalize();
+        if (!Files.exists(source)) {
+            throw new NoSuchFileException(sourcePath);
+        }
+        Files.createDirectories(destination.getParent());
+        try {
+            Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Only happens across filesystems, where a rename is impossible anyway
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Each stream owns its channel, so there is nothing to release here
+    }
+
+    // Reads a file through successive read-only mappings of at most MAP_WINDOW_BYTES
+    private static class MappedFileInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedFileInputStream(FileChannel channel, long offset) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowStart = Math.min(offset, size);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureWindow()) {
+                return -1;
+            }
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureWindow()) {
+                return -1;
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            long remaining = size - windowStart - (window != null ? window.position() : 0);
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+
+        // Maps the next window once the current one is used up; false at end of file
+        private boolean ensureWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            if (window != null) {
+                windowStart += window.capacity();
+            }
+            if (windowStart >= size) {
+                return false;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAP_WINDOW_BYTES, size - windowStart));
+            return true;
+        }
+    }
+}
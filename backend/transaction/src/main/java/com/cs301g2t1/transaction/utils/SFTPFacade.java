@@ -3,16 +3,36 @@ package com.cs301g2t1.transaction.utils;
 import java.util.List;
 import java.io.InputStream;
 
+import com.cs301g2t1.transaction.model.SourceFile;
+
 public interface SFTPFacade extends AutoCloseable {
     // Establish connection to the SFTP server
     void connect() throws Exception;
 
     // List files in the specified directory matching the given pattern
     List<String> listFiles(String directory, String filePattern) throws Exception;
+
+    // Same files as listFiles, with the size and modification time returned by the same directory read
+    List<SourceFile> listFileDetails(String directory, String filePattern) throws Exception;
     
+    // Size in bytes of the file at the specified filepath
+    long getFileSize(String filePath) throws Exception;
+
+    // Last modification time of the file at the specified filepath, in seconds since the epoch
+    long getModifiedTime(String filePath) throws Exception;
+
     // Download files from specified filepath as an InputStream
     InputStream downloadFile(String filePath) throws Exception;
 
+    // Stream files from specified filepath without buffering the whole file in memory
+    InputStream streamFile(String filePath) throws Exception;
+
+    // Stream files from the given byte offset onwards, e.g. to resume a partially ingested file
+    InputStream streamFile(String filePath, long offset) throws Exception;
+
+    // Write content to the specified filepath, appending if it already exists and append is set
+    void uploadFile(InputStream content, String destinationPath, boolean append) throws Exception;
+
     // Move files from source to destination path on the SFTP server
     void moveFile(String sourcePath, String destinationPath) throws Exception;
 
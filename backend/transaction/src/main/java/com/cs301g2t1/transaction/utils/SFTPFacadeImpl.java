@@ -2,178 +2,60 @@ package com.cs301g2t1.transaction.utils;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
-import net.schmizz.sshj.SSHClient;
+import com.cs301g2t1.transaction.model.SourceFile;
+
+import net.schmizz.sshj.connection.ConnectionException;
 import net.schmizz.sshj.sftp.FileAttributes;
 import net.schmizz.sshj.sftp.FileMode;
+import net.schmizz.sshj.sftp.OpenMode;
 import net.schmizz.sshj.sftp.RemoteFile;
 import net.schmizz.sshj.sftp.RemoteResourceInfo;
 import net.schmizz.sshj.sftp.SFTPClient;
-import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
-import net.schmizz.sshj.userauth.keyprovider.KeyProvider;
-import net.schmizz.sshj.userauth.password.PasswordUtils;
+import net.schmizz.sshj.transport.TransportException;
 
 public class SFTPFacadeImpl implements SFTPFacade {
-    private SSHClient ssh = null;
+    // Number of SFTP requests kept in flight by streamFile reads and uploadFile writes
+    private static final int READ_AHEAD_REQUESTS = EnvUtils.getInt("SFTP_READ_AHEAD_REQUESTS", 16);
+    // Files at least this large are copied to local disk before parsing; 0 disables spilling
+    private static final long SPILL_THRESHOLD_BYTES = EnvUtils.getLong("SFTP_SPILL_THRESHOLD_BYTES", 0);
+
+    private final SftpSession session = SftpSession.getInstance();
     private SFTPClient sftpClient = null;
 
     @Override
     public void connect() throws Exception {
-        String host = System.getenv("SFTP_HOST");
-        String username = System.getenv("SFTP_USER");
-        String privateKeySecretName = System.getenv("SFTP_PRIVATE_KEY_SECRET_NAME");
-        String keyPassphrase = System.getenv("SFTP_KEY_PASSPHRASE");
-    
-        System.out.println("SSHJ: Attempting to connect to " + host + " as " + username);
-        System.out.println("SSHJ: Using private key secret: " + (privateKeySecretName != null ? privateKeySecretName : "none"));
-        System.out.println("SSHJ: Using key passphrase: " + (keyPassphrase != null ? "yes" : "no"));
-        
-        ssh = new SSHClient();
-        
-        // Don't check host keys (equivalent to StrictHostKeyChecking=no)
-        ssh.addHostKeyVerifier(new PromiscuousVerifier());
-        
-        // Set connection timeout
-        ssh.setConnectTimeout(30000); // 30 seconds
-
-        try {
-            // Connect to the server
-            System.out.println("SSHJ: Connecting to server...");
-            ssh.connect(host);
-            System.out.println("SSHJ: Connected successfully to " + host);
-            
-            boolean authenticated = false;
-            
-            // Try private key authentication first if available
-            if (privateKeySecretName != null && !privateKeySecretName.isEmpty()) {
-                try {
-                    System.out.println("SSHJ: Retrieving private key from Secrets Manager...");
-                    String privateKey = SecretsManagerUtil.getSecretValue(privateKeySecretName);
-                    
-                    if (privateKey != null && !privateKey.isEmpty()) {
-                        System.out.println("SSHJ: Private key retrieved, length: " + privateKey.length());
-                        
-                        // Log first part of the key for debugging
-                        if (privateKey.length() > 20) {
-                            System.out.println("SSHJ: Key starts with: " + privateKey.substring(0, Math.min(100, privateKey.length())) + "...");
-                        }
-                        
-                        try {
-                            // Normalize the key format
-                            privateKey = normalizeKeyFormat(privateKey);
-                            
-                            // Create a temporary file for the private key
-                            java.io.File tempKeyFile = java.io.File.createTempFile("ssh-key", ".pem");
-                            try {
-                                // Set restrictive permissions on the key file
-                                tempKeyFile.setReadable(false, false);
-                                tempKeyFile.setReadable(true, true);
-                                tempKeyFile.setWritable(false, false);
-                                tempKeyFile.setWritable(true, true);
-                                
-                                // Write the key content to the temp file
-                                try (java.io.FileWriter writer = new java.io.FileWriter(tempKeyFile)) {
-                                    writer.write(privateKey);
-                                }
-                                
-                                System.out.println("SSHJ: Created temporary key file: " + tempKeyFile.getAbsolutePath());
-                                
-                                // Load the key from the temp file
-                                KeyProvider keyProvider;
-                                if (keyPassphrase != null && !keyPassphrase.isEmpty()) {
-                                    keyProvider = ssh.loadKeys(tempKeyFile.getAbsolutePath(),
-                                        PasswordUtils.createOneOff(keyPassphrase.toCharArray()));
-                                    System.out.println("SSHJ: Loaded key with passphrase");
-                                } else {
-                                    keyProvider = ssh.loadKeys(tempKeyFile.getAbsolutePath(), (char[]) null);
-                                    System.out.println("SSHJ: Loaded key without passphrase");
-                                }
-                                
-                                // Authenticate with private key
-                                System.out.println("SSHJ: Authenticating with private key...");
-                                ssh.authPublickey(username, keyProvider);
-                                System.out.println("SSHJ: Authentication with private key successful");
-                                authenticated = true;
-                            } finally {
-                                // Always delete the temporary key file
-                                if (tempKeyFile.exists()) {
-                                    boolean deleted = tempKeyFile.delete();
-                                    System.out.println("SSHJ: Temporary key file " + 
-                                        (deleted ? "deleted" : "could not be deleted"));
-                                }
-                            }
-                        } catch (Exception e) {
-                            System.out.println("SSHJ: Failed to authenticate with private key: " + e.getMessage());
-                            e.printStackTrace();
-                        }
-                    } else {
-                        System.out.println("SSHJ: Retrieved private key is null or empty");
-                    }
-                } catch (Exception e) {
-                    System.out.println("SSHJ: Error retrieving private key: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-            
-            if (!authenticated) {
-                throw new Exception("SSHJ: All authentication methods failed");
-            }
-            
-            // Start SFTP session
-            System.out.println("SSHJ: Starting SFTP session...");
-            sftpClient = ssh.newSFTPClient();
-            System.out.println("SSHJ: SFTP session established successfully");
-            
-        } catch (Exception e) {
-            System.out.println("SSHJ: Connection failed: " + e.getMessage());
-            if (ssh != null && ssh.isConnected()) {
-                try {
-                    ssh.disconnect();
-                } catch (IOException ignored) {}
-            }
-            throw e;
-        }
+        // Channels are cheap; the SSH connection underneath is shared and outlives this facade
+        sftpClient = session.openSftp();
     }
 
-    /**
-     * Normalizes SSH key format by ensuring it has proper PEM format with correct line breaks
-     */
-    private String normalizeKeyFormat(String key) {
-        if (key == null) return null;
-        
-        System.out.println("SSHJ: Normalizing key format...");
-        
-        // Remove extra spaces/tabs at beginning of lines
-        key = key.replaceAll("(?m)^[ \\t]+", "");
-        
-        // Normalize line endings
-        key = key.replaceAll("\r\n", "\n").replaceAll("\r", "\n");
-        
-        // Detect key type
-        boolean isRSA = key.contains("RSA PRIVATE KEY");
-        boolean isEC = key.contains("EC PRIVATE KEY");
-        boolean isOpenSSH = key.contains("OPENSSH PRIVATE KEY");
-        System.out.println("SSHJ: Detected key type: " + 
-                          (isRSA ? "RSA" : isEC ? "EC" : isOpenSSH ? "OpenSSH" : "Unknown"));
-        
-        // Check if key is in proper PEM format
-        if (!key.startsWith("-----BEGIN") || !key.contains("PRIVATE KEY")) {
-            System.out.println("SSHJ: Key doesn't appear to be in PEM format, may not work correctly");
+    @Override
+    public List<String> listFiles(String directory, String pattern) throws Exception {
+        List<String> fileList = new ArrayList<>();
+        for (SourceFile file : listFileDetails(directory, pattern)) {
+            fileList.add(file.getName());
         }
-        
-        return key;
+        return fileList;
     }
 
     @Override
-    public List<String> listFiles(String directory, String pattern) throws Exception {
-        List<String> fileList = new ArrayList<>();
+    public List<SourceFile> listFileDetails(String directory, String pattern) throws Exception {
+        List<SourceFile> fileList = new ArrayList<>();
         
         try {
-            List<RemoteResourceInfo> ls = sftpClient.ls(directory);
+            List<RemoteResourceInfo> ls = withReconnect(() -> sftpClient.ls(directory));
             for (RemoteResourceInfo info : ls) {
                 String filename = info.getName();
                 
@@ -189,7 +71,11 @@ public class SFTPFacadeImpl implements SFTPFacade {
                         (pattern.contains("*") && pattern.split("\\*").length == 2 &&
                                 filename.startsWith(pattern.split("\\*")[0]) &&
                                 filename.endsWith(pattern.split("\\*")[1]))) {
-                    fileList.add(filename);
+                    SourceFile file = new SourceFile();
+                    file.setName(filename);
+                    file.setSize(info.getAttributes().getSize());
+                    file.setModifiedTime(info.getAttributes().getMtime());
+                    fileList.add(file);
                 }
             }
         } catch (IOException e) {
@@ -200,6 +86,26 @@ public class SFTPFacadeImpl implements SFTPFacade {
         return fileList;
     }
 
+    @Override
+    public long getFileSize(String filePath) throws Exception {
+        try {
+            return withReconnect(() -> sftpClient.size(filePath));
+        } catch (IOException e) {
+            System.out.println("SSHJ: Error reading file size: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public long getModifiedTime(String filePath) throws Exception {
+        try {
+            return withReconnect(() -> sftpClient.stat(filePath).getMtime());
+        } catch (IOException e) {
+            System.out.println("SSHJ: Error reading file attributes: " + e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public InputStream downloadFile(String filePath) throws Exception {
         try {
@@ -223,6 +129,97 @@ public class SFTPFacadeImpl implements SFTPFacade {
         }
     }
 
+    @Override
+    public InputStream streamFile(String filePath) throws Exception {
+        return streamFile(filePath, 0);
+    }
+
+    @Override
+    public InputStream streamFile(String filePath, long offset) throws Exception {
+        try {
+            RemoteFile file = sftpClient.open(filePath);
+            InputStream remoteStream;
+            boolean spill;
+            try {
+                spill = SPILL_THRESHOLD_BYTES > 0 && file.length() - offset >= SPILL_THRESHOLD_BYTES;
+                remoteStream = new RemoteFileStream(file,
+                        file.new ReadAheadRemoteFileInputStream(READ_AHEAD_REQUESTS, offset));
+            } catch (IOException | RuntimeException e) {
+                // Nothing owns the handle yet, so close it here rather than leak it on the shared connection
+                try {
+                    file.close();
+                } catch (IOException closeError) {
+                    e.addSuppressed(closeError);
+                }
+                throw e;
+            }
+            return spill ? spillToTempFile(remoteStream) : remoteStream;
+        } catch (IOException e) {
+            System.out.println("SSHJ: Error streaming file: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // Copies the remote stream to a temp file so the SFTP channel is released before slow consumers start
+    private InputStream spillToTempFile(InputStream remoteStream) throws IOException {
+        Path tempFile = Files.createTempFile("sftp-spill", ".csv");
+        try (InputStream in = remoteStream) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        System.out.println("SSHJ: Spilled " + Files.size(tempFile) + " bytes to " + tempFile);
+        return new FilterInputStream(new FileInputStream(tempFile.toFile())) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+        };
+    }
+
+    // Read-ahead stream that also closes the remote file handle
+    private static class RemoteFileStream extends FilterInputStream {
+        private final RemoteFile file;
+
+        RemoteFileStream(RemoteFile file, InputStream in) {
+            super(in);
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    @Override
+    public void uploadFile(InputStream content, String destinationPath, boolean append) throws Exception {
+        try {
+            String destinationDir = destinationPath.substring(0, destinationPath.lastIndexOf('/'));
+            createDirectoryRecursively(destinationDir);
+
+            Set<OpenMode> modes = append
+                    ? EnumSet.of(OpenMode.WRITE, OpenMode.CREAT)
+                    : EnumSet.of(OpenMode.WRITE, OpenMode.CREAT, OpenMode.TRUNC);
+            try (RemoteFile file = sftpClient.open(destinationPath, modes);
+                 OutputStream out = file.new RemoteFileOutputStream(append ? file.length() : 0, READ_AHEAD_REQUESTS)) {
+                content.transferTo(out);
+            }
+        } catch (IOException e) {
+            System.out.println("SSHJ: Error uploading file: " + e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public void moveFile(String sourceFilePath, String destinationFilePath) throws Exception {
         try {
@@ -267,17 +264,32 @@ public class SFTPFacadeImpl implements SFTPFacade {
         }
     }
 
+    /**
+     * Runs a read-only call, and if its channel fails (e.g. the connection was dropped while the container was
+     * frozen), runs it once more on a new channel. The shared connection is only replaced if it is actually gone,
+     * so other workers' channels on it are left alone.
+     */
+    private <T> T withReconnect(SftpCall<T> call) throws Exception {
+        try {
+            return call.run();
+        } catch (TransportException | ConnectionException e) {
+            System.out.println("SSHJ: SFTP channel failed (" + e.getMessage() + "), retrying on a new channel");
+            session.release(sftpClient);
+            sftpClient = null;
+            sftpClient = session.openSftp();
+            return call.run();
+        }
+    }
+
+    private interface SftpCall<T> {
+        T run() throws IOException;
+    }
+
     @Override
     public void close() {
-        try {
-            if (sftpClient != null) {
-                sftpClient.close();
-            }
-            if (ssh != null) {
-                ssh.disconnect();
-            }
-        } catch (IOException e) {
-            System.out.println("SSHJ: Error closing connection: " + e.getMessage());
+        if (sftpClient != null) {
+            session.release(sftpClient);
+            sftpClient = null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide cache in front of a SecretSource.
+ *
+ * A value is served from memory until refreshAfter, then still served while a single background fetch
+ * replaces it, and only fetched synchronously once the TTL has passed. Concurrent misses for the same
+ * secret share one fetch, so parallel ingestion workers cause one lookup rather than one each. A failed
+ * background refresh keeps the old value until it expires.
+ */
+public class SecretCache {
+
+    private final SecretSource source;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final LongSupplier clock;
+    private final Executor refreshExecutor;
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> refreshing = new ConcurrentHashMap<>();
+
+    public SecretCache(SecretSource source, long ttlMillis, long refreshAfterMillis) {
+        this(source, ttlMillis, refreshAfterMillis, System::nanoTime, task -> Thread.ofVirtual().name("secret-refresh").start(task));
+    }
+
+    SecretCache(SecretSource source, long ttlMillis, long refreshAfterMillis, LongSupplier clock, Executor refreshExecutor) {
+        this.source = source;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.refreshAfterNanos = Math.min(refreshAfterMillis, ttlMillis) * 1_000_000;
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    public String get(String name) {
+        while (true) {
+            CompletableFuture<Entry> cached = entries.get(name);
+            if (cached == null) {
+                CompletableFuture<Entry> load = new CompletableFuture<>();
+                if (entries.putIfAbsent(name, load) == null) {
+                    return fetch(name, load);
+                }
+                continue;
+            }
+            if (!cached.isDone()) {
+                // Another thread is fetching this secret; wait for its result
+                try {
+                    return cached.join().value;
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+            Entry entry = cached.join();
+            long age = clock.getAsLong() - entry.fetchedAt;
+            if (age < ttlNanos) {
+                if (age >= refreshAfterNanos) {
+                    refreshInBackground(name);
+                }
+                return entry.value;
+            }
+            entries.remove(name, cached);
+        }
+    }
+
+    // Drops a cached value, e.g. after it was rejected, so the next get fetches it again
+    public void invalidate(String name) {
+        entries.remove(name);
+    }
+
+    private String fetch(String name, CompletableFuture<Entry> load) {
+        try {
+            Entry entry = new Entry(source.getSecret(name), clock.getAsLong());
+            load.complete(entry);
+            return entry.value;
+        } catch (RuntimeException e) {
+            // Waiting threads see the failure; the next call tries again
+            entries.remove(name, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void refreshInBackground(String name) {
+        if (refreshing.putIfAbsent(name, Boolean.TRUE) != null) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                Entry entry = new Entry(source.getSecret(name), clock.getAsLong());
+                entries.put(name, CompletableFuture.completedFuture(entry));
+            } catch (RuntimeException e) {
+                System.out.println("Failed to refresh secret " + name + ": " + e.getMessage());
+            } finally {
+                refreshing.remove(name);
+            }
+        });
+    }
+
+    private record Entry(String value, long fetchedAt) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.cs301g2t1.transaction.utils;
+
+/**
+ * Where secret values come from; AWS Secrets Manager in production, a local stand-in in tests.
+ */
+@FunctionalInterface
+public interface SecretSource {
+    // Returns the current value of the named secret, throwing if it cannot be read
+    String getSecret(String name);
+}
@@ -6,21 +6,48 @@ import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
 
 public class SecretsManagerUtil {
-    
+
+    // Secrets are re-read from the source at most this often, with a background refresh after SECRETS_REFRESH_AFTER_MS
+    private static final long CACHE_TTL_MS = EnvUtils.getLong("SECRETS_CACHE_TTL_MS", 15 * 60 * 1000L);
+    private static final long REFRESH_AFTER_MS = EnvUtils.getLong("SECRETS_REFRESH_AFTER_MS", 10 * 60 * 1000L);
+
+    private static volatile SecretCache cache = new SecretCache(SecretsManagerUtil::fetchFromSecretsManager,
+            CACHE_TTL_MS, REFRESH_AFTER_MS);
+
     /**
-     * Retrieves a secret value from AWS Secrets Manager.
+     * Retrieves a secret value, from the process-wide cache when it is fresh enough and otherwise from
+     * AWS Secrets Manager (or the source set with setSecretSource).
      * 
      * @param secretName The name or ARN of the secret to retrieve
      * @return The secret value as a string
      */
     public static String getSecretValue(String secretName) {
-        AWSSecretsManager client = AWSSecretsManagerClientBuilder.standard().build();
-        
+        return cache.get(secretName);
+    }
+
+    // Forces the next lookup of secretName to go to the source, e.g. after a rotated key was rejected
+    public static void invalidate(String secretName) {
+        cache.invalidate(secretName);
+    }
+
+    /**
+     * Replaces where secrets are read from, e.g. with a local stand-in in tests. Cached values are dropped.
+     */
+    public static void setSecretSource(SecretSource source) {
+        cache = new SecretCache(source, CACHE_TTL_MS, REFRESH_AFTER_MS);
+    }
+
+    private static String fetchFromSecretsManager(String secretName) {
         GetSecretValueRequest getSecretValueRequest = new GetSecretValueRequest()
             .withSecretId(secretName);
-        
-        GetSecretValueResult getSecretValueResult = client.getSecretValue(getSecretValueRequest);
-        
+
+        GetSecretValueResult getSecretValueResult = ClientHolder.CLIENT.getSecretValue(getSecretValueRequest);
+
         return getSecretValueResult.getSecretString();
     }
+
+    // Built on first use and shared by every lookup; the client is thread-safe
+    private static class ClientHolder {
+        static final AWSSecretsManager CLIENT = AWSSecretsManagerClientBuilder.standard().build();
+    }
 }
@@ -0,0 +1,273 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.keepalive.KeepAlive;
+import net.schmizz.keepalive.KeepAliveProvider;
+import net.schmizz.keepalive.KeepAliveRunner;
+import net.schmizz.sshj.DefaultConfig;
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.common.SSHPacket;
+import net.schmizz.sshj.connection.ConnectionException;
+import net.schmizz.sshj.sftp.SFTPClient;
+import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
+import net.schmizz.sshj.userauth.keyprovider.KeyProvider;
+import net.schmizz.sshj.userauth.password.PasswordUtils;
+
+/**
+ * One SSH connection to SFTP_HOST per container, kept open between invocations.
+ *
+ * Every SFTPFacadeImpl opens its own SFTP channel on the shared connection, so a warm invocation (and each
+ * parallel worker) skips the TCP, key exchange and authentication round trips. Keep-alives hold the connection
+ * open while the container runs. A connection that has sat idle, typically across a frozen container, is probed
+ * before it is handed out and is replaced if the probe goes unanswered.
+ *
+ * The connection is only replaced once it is actually gone. A channel the server refuses, or one that fails on
+ * its own, never takes down the connection, since other workers' channels and streams are still running on it.
+ * At most SFTP_MAX_CHANNELS channels are open at once so the server's MaxSessions limit is not hit.
+ */
+public class SftpSession {
+
+    // Interval between keep-alive messages; 0 disables them
+    private static final int KEEPALIVE_SECONDS = EnvUtils.getInt("SFTP_KEEPALIVE_SECONDS", 15);
+    // Unanswered keep-alives after which the connection is dropped
+    private static final int KEEPALIVE_MAX_MISSED = EnvUtils.getInt("SFTP_KEEPALIVE_MAX_MISSED", 3);
+    // A connection with no open channels for this long is probed before reuse
+    private static final long VALIDATE_AFTER_MS = EnvUtils.getLong("SFTP_SESSION_VALIDATE_AFTER_MS", 10000);
+    private static final long VALIDATE_TIMEOUT_MS = EnvUtils.getLong("SFTP_SESSION_VALIDATE_TIMEOUT_MS", 2000);
+    // Channels open at once on the shared connection; keep at or below the server's MaxSessions (OpenSSH: 10)
+    private static final int MAX_CHANNELS = EnvUtils.getInt("SFTP_MAX_CHANNELS", 10);
+    private static final int CONNECT_TIMEOUT_MS = 30000;
+
+    private static SftpSession instance;
+
+    private final Semaphore channelPermits = new Semaphore(MAX_CHANNELS, true);
+    // Open channels and the generation of the connection each was opened on
+    private final Map<SFTPClient, Long> channelGenerations = new IdentityHashMap<>();
+    private SSHClient ssh;
+    // Incremented each time the connection is replaced
+    private long generation;
+    // Open channels on the current connection
+    private int openChannels;
+    private long idleSince;
+
+    private SftpSession() {
+    }
+
+    public static synchronized SftpSession getInstance() {
+        if (instance == null) {
+            instance = new SftpSession();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads and initializes sshj's algorithm factories and security providers without connecting, so a container
+     * primed for a snapshot does not pay for them on its first SFTP connection.
+     */
+    public static void preload() {
+        new SSHClient(new DefaultConfig());
+    }
+
+    /**
+     * Opens an SFTP channel on the shared connection, connecting first if there is no usable connection. Waits up
+     * to the connect timeout if SFTP_MAX_CHANNELS channels are already open.
+     * Every channel returned must be handed back with release.
+     */
+    public SFTPClient openSftp() throws Exception {
+        if (!channelPermits.tryAcquire(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new IOException("SSHJ: Timed out waiting for one of " + MAX_CHANNELS + " SFTP channels");
+        }
+        try {
+            return openChannel();
+        } catch (Exception e) {
+            channelPermits.release();
+            throw e;
+        }
+    }
+
+    private synchronized SFTPClient openChannel() throws Exception {
+        if (!isUsable()) {
+            reconnect();
+        }
+        SFTPClient sftpClient;
+        try {
+            sftpClient = ssh.newSFTPClient();
+        } catch (IOException e) {
+            if (ssh.isConnected()) {
+                // Refused by the server, not a dead connection; the channels already open on it are unaffected
+                System.out.println("SSHJ: Server refused SFTP channel: " + e.getMessage());
+                throw e;
+            }
+            System.out.println("SSHJ: Connection dropped while opening SFTP channel, reconnecting: " + e.getMessage());
+            reconnect();
+            sftpClient = ssh.newSFTPClient();
+        }
+        channelGenerations.put(sftpClient, generation);
+        openChannels++;
+        return sftpClient;
+    }
+
+    // Closes a channel returned by openSftp; the connection itself stays open for the next caller
+    public void release(SFTPClient sftpClient) {
+        synchronized (this) {
+            try {
+                sftpClient.close();
+            } catch (IOException e) {
+                System.out.println("SSHJ: Error closing SFTP channel: " + e.getMessage());
+            }
+            // A channel of a connection that has since been replaced does not count against the current one
+            Long channelGeneration = channelGenerations.remove(sftpClient);
+            if (channelGeneration != null && channelGeneration == generation) {
+                openChannels = Math.max(0, openChannels - 1);
+                if (openChannels == 0) {
+                    idleSince = System.currentTimeMillis();
+                }
+            }
+        }
+        channelPermits.release();
+    }
+
+    // Drops the connection and every channel on it; only for when no channels are in use, e.g. before a snapshot
+    public synchronized void invalidate() {
+        disconnectQuietly();
+    }
+
+    private boolean isUsable() {
+        if (ssh == null || !ssh.isConnected() || !ssh.isAuthenticated()) {
+            return false;
+        }
+        // Traffic on open channels (and the keep-alives) already tells us the connection is alive
+        if (openChannels > 0 || System.currentTimeMillis() - idleSince < VALIDATE_AFTER_MS) {
+            return true;
+        }
+        return probe();
+    }
+
+    // Sends a global request the server must answer; any answer, even a refusal, proves the connection is alive
+    private boolean probe() {
+        try {
+            Promise<SSHPacket, ConnectionException> reply =
+                    ssh.getConnection().sendGlobalRequest("keepalive@openssh.com", true, new byte[0]);
+            try {
+                if (reply.tryRetrieve(VALIDATE_TIMEOUT_MS, TimeUnit.MILLISECONDS) == null) {
+                    System.out.println("SSHJ: Idle connection did not answer within " + VALIDATE_TIMEOUT_MS + " ms");
+                    return false;
+                }
+            } catch (ConnectionException refused) {
+                // Refused, but answered; unless the refusal is the transport going away
+            }
+            return ssh.isConnected();
+        } catch (IOException e) {
+            System.out.println("SSHJ: Idle connection probe failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void reconnect() throws Exception {
+        disconnectQuietly();
+
+        String host = System.getenv("SFTP_HOST");
+        String username = System.getenv("SFTP_USER");
+        String privateKeySecretName = System.getenv("SFTP_PRIVATE_KEY_SECRET_NAME");
+        String keyPassphrase = System.getenv("SFTP_KEY_PASSPHRASE");
+
+        System.out.println("SSHJ: Attempting to connect to " + host + " as " + username);
+        System.out.println("SSHJ: Using private key secret: " + (privateKeySecretName != null ? privateKeySecretName : "none"));
+        System.out.println("SSHJ: Using key passphrase: " + (keyPassphrase != null ? "yes" : "no"));
+
+        DefaultConfig config = new DefaultConfig();
+        config.setKeepAliveProvider(KeepAliveProvider.KEEP_ALIVE);
+        SSHClient client = new SSHClient(config);
+
+        // Don't check host keys (equivalent to StrictHostKeyChecking=no)
+        client.addHostKeyVerifier(new PromiscuousVerifier());
+        client.setConnectTimeout(CONNECT_TIMEOUT_MS);
+
+        // Must be set before connecting, which is when the keep-alive thread starts
+        KeepAlive keepAlive = client.getConnection().getKeepAlive();
+        if (keepAlive instanceof KeepAliveRunner) {
+            ((KeepAliveRunner) keepAlive).setMaxAliveCount(KEEPALIVE_MAX_MISSED);
+        }
+        keepAlive.setKeepAliveInterval(KEEPALIVE_SECONDS);
+
+        try {
+            System.out.println("SSHJ: Connecting to server...");
+            client.connect(host, EnvUtils.getInt("SFTP_PORT", SSHClient.DEFAULT_PORT));
+            System.out.println("SSHJ: Connected successfully to " + host);
+
+            if (privateKeySecretName == null || privateKeySecretName.isEmpty()) {
+                throw new Exception("SSHJ: All authentication methods failed");
+            }
+            try {
+                client.authPublickey(username, loadKey(client, privateKeySecretName, keyPassphrase));
+                System.out.println("SSHJ: Authentication with private key successful");
+            } catch (Exception e) {
+                System.out.println("SSHJ: Failed to authenticate with private key: " + e.getMessage());
+                // The cached key may have been rotated; fetch it again on the next connect
+                SecretsManagerUtil.invalidate(privateKeySecretName);
+                throw new Exception("SSHJ: All authentication methods failed", e);
+            }
+        } catch (Exception e) {
+            System.out.println("SSHJ: Connection failed: " + e.getMessage());
+            if (client.isConnected()) {
+                try {
+                    client.disconnect();
+                } catch (IOException ignored) {}
+            }
+            throw e;
+        }
+
+        ssh = client;
+        generation++;
+        openChannels = 0;
+        idleSince = System.currentTimeMillis();
+    }
+
+    // Parses the private key straight from the secret value, without writing it to disk
+    private static KeyProvider loadKey(SSHClient client, String secretName, String passphrase) throws Exception {
+        String privateKey = SecretsManagerUtil.getSecretValue(secretName);
+        if (privateKey == null || privateKey.isEmpty()) {
+            throw new Exception("Retrieved private key is null or empty");
+        }
+        privateKey = normalizeKeyFormat(privateKey);
+        if (passphrase != null && !passphrase.isEmpty()) {
+            return client.loadKeys(privateKey, null, PasswordUtils.createOneOff(passphrase.toCharArray()));
+        }
+        return client.loadKeys(privateKey, null, null);
+    }
+
+    /**
+     * Normalizes SSH key format by ensuring it has proper PEM format with correct line breaks
+     */
+    private static String normalizeKeyFormat(String key) {
+        // Remove extra spaces/tabs at beginning of lines
+        key = key.replaceAll("(?m)^[ \\t]+", "");
+
+        // Normalize line endings
+        key = key.replaceAll("\r\n", "\n").replaceAll("\r", "\n");
+
+        if (!key.startsWith("-----BEGIN") || !key.contains("PRIVATE KEY")) {
+            System.out.println("SSHJ: Key doesn't appear to be in PEM format, may not work correctly");
+        }
+        return key;
+    }
+
+    private void disconnectQuietly() {
+        if (ssh == null) {
+            return;
+        }
+        try {
+            ssh.disconnect();
+        } catch (IOException e) {
+            System.out.println("SSHJ: Error closing connection: " + e.getMessage());
+        }
+        ssh = null;
+        openChannels = 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.cs301g2t1.transaction.model.Transaction;
+
+/**
+ * Reads transactions from a CSV stream one row at a time.
+ *
+ * Only the current row is held in memory, so callers can persist rows incrementally regardless of
+ * file size. Closing the reader closes the underlying stream. A malformed row throws CsvRowException
+ * unless a RejectHandler is set, in which case the row is handed to it and reading continues.
+ */
+public class TransactionCsvReader implements Iterator<Transaction>, Closeable {
+
+    public interface RejectHandler {
+        // byteOffset is just after the rejected row, comparable with getByteOffset()
+        void reject(CsvRowException error, long byteOffset);
+    }
+
+    private final TransactionCsvTokenizer tokenizer;
+    private RejectHandler rejectHandler;
+    private Transaction next;
+    private boolean finished;
+    // Position after the row held in next, and after the last row handed out by next()
+    private long nextByteOffset;
+    private long nextLineNumber;
+    private long byteOffset;
+    private long lineNumber;
+
+    public TransactionCsvReader(InputStream inputStream) throws IOException {
+        this.tokenizer = new TransactionCsvTokenizer(inputStream);
+        this.byteOffset = tokenizer.getByteOffset();
+        this.lineNumber = tokenizer.getLineNumber();
+    }
+
+    /**
+     * Continues a file from a position previously reported by getByteOffset and getLineNumber.
+     * The stream must start at that offset; header is the file's header row.
+     */
+    public TransactionCsvReader(InputStream inputStream, String header, long byteOffset, long lineNumber) throws IOException {
+        this.tokenizer = new TransactionCsvTokenizer(inputStream, header, byteOffset, lineNumber);
+        this.byteOffset = byteOffset;
+        this.lineNumber = lineNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        while (true) {
+            try {
+                next = tokenizer.next();
+                nextByteOffset = tokenizer.getByteOffset();
+                nextLineNumber = tokenizer.getLineNumber();
+                break;
+            } catch (CsvRowException e) {
+                if (rejectHandler == null) {
+                    throw e;
+                }
+                rejectHandler.reject(e, tokenizer.getByteOffset());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read CSV at line " + tokenizer.getLineNumber(), e);
+            }
+        }
+        finished = next == null;
+        return !finished;
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Transaction transaction = next;
+        next = null;
+        byteOffset = nextByteOffset;
+        lineNumber = nextLineNumber;
+        return transaction;
+    }
+
+    // Line number of the row most recently returned by next() (the header is line 1)
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // Offset in the file just after the row most recently returned by next(), i.e. where a resumed read starts
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    public void setRejectHandler(RejectHandler rejectHandler) {
+        this.rejectHandler = rejectHandler;
+    }
+
+    // The file's header row, needed to resume it later
+    public String getHeader() {
+        return tokenizer.getHeader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+    }
+}
@@ -0,0 +1,583 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionStatus;
+import com.cs301g2t1.transaction.model.TransactionType;
+
+/**
+ * Hand-written tokenizer for the transaction CSV schema (Id, Client ID, Transaction, Amount, Date, Status).
+ *
+ * Fields are parsed straight out of a reusable byte buffer: no regex split, no per-field Strings on the
+ * happy path, a fixed-layout ISO date parser with a last-value cache, and enum lookups through a
+ * precomputed table. Columns are mapped from the header row so files may reorder them or carry extra
+ * columns. Quoted fields (RFC 4180) are supported, including quoted line breaks; a quote still open after
+ * CSV_MAX_QUOTED_FIELD_BYTES is taken to be unbalanced, and only its own line is rejected.
+ */
+public class TransactionCsvTokenizer implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // Longest quoted field accepted; keeps an unbalanced quote from swallowing the rest of the file
+    private static final int MAX_QUOTED_FIELD_BYTES = EnvUtils.getInt("CSV_MAX_QUOTED_FIELD_BYTES", 64 * 1024);
+
+    // Column roles
+    private static final int IGNORED = -1;
+    private static final int ID = 0;
+    private static final int CLIENT_ID = 1;
+    private static final int TYPE = 2;
+    private static final int AMOUNT = 3;
+    private static final int DATE = 4;
+    private static final int STATUS = 5;
+    private static final int ROLE_COUNT = 6;
+    private static final String[] ROLE_NAMES = {"Id", "Client ID", "Transaction", "Amount", "Date", "Status"};
+
+    // Exact powers of ten; mantissa / POW10[n] is correctly rounded while mantissa < 2^53
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final EnumTable<TransactionType> TYPES = new EnumTable<>(TransactionType.values());
+    private static final EnumTable<TransactionStatus> STATUSES = new EnumTable<>(TransactionStatus.values());
+
+    private final InputStream in;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private boolean eof;
+    // Stream offset of buf[0]
+    private long bufferOffset;
+    private long lineNumber;
+    // Set by findRecordEnd when it cut a record at its first line because a quote was never closed
+    private boolean unterminatedQuote;
+
+    private final String header;
+    private int[] columnRoles;
+
+    // Bounds of the current record's fields, indexed by role
+    private final int[] fieldStart = new int[ROLE_COUNT];
+    private final int[] fieldEnd = new int[ROLE_COUNT];
+
+    // Consecutive rows usually share a date, so the last one parsed is reused
+    private final byte[] lastDateBytes = new byte[10];
+    private LocalDate lastDate;
+
+    /**
+     * Reads and maps the header row, leaving the tokenizer positioned at the first data row.
+     */
+    public TransactionCsvTokenizer(InputStream in) throws IOException {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TransactionCsvTokenizer(InputStream in, int bufferSize) throws IOException {
+        this.in = in;
+        this.buf = new byte[bufferSize];
+        this.header = readHeader();
+        this.columnRoles = mapColumns(header);
+    }
+
+    /**
+     * Resumes a file part way through: in must be positioned at the start of a row, byteOffset and lineNumber
+     * describe that position in the original file, and header is the file's header row as returned by getHeader.
+     */
+    public TransactionCsvTokenizer(InputStream in, String header, long byteOffset, long lineNumber) throws IOException {
+        this.in = in;
+        this.buf = new byte[DEFAULT_BUFFER_SIZE];
+        this.header = header;
+        this.columnRoles = mapColumns(header);
+        this.bufferOffset = byteOffset;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Returns the next transaction, or null at end of input. Blank lines are skipped.
+     *
+     * @throws CsvRowException if the row is malformed; the tokenizer is already positioned after it
+     */
+    public Transaction next() throws IOException {
+        while (true) {
+            int recordEnd = findRecordEnd();
+            if (recordEnd < 0) {
+                return null;
+            }
+            // Read after findRecordEnd, which may have compacted the buffer
+            int recordStart = pos;
+            int next = recordEnd < limit ? recordEnd + 1 : recordEnd;
+            int end = recordEnd;
+            if (end > recordStart && buf[end - 1] == '\r') {
+                end--;
+            }
+            pos = next;
+            if (unterminatedQuote) {
+                unterminatedQuote = false;
+                throw rowError(recordStart, end, "Unterminated quoted field");
+            }
+            if (isBlank(recordStart, end)) {
+                continue;
+            }
+            return parseRecord(recordStart, end);
+        }
+    }
+
+    // The header row exactly as it appeared in the file
+    public String getHeader() {
+        return header;
+    }
+
+    // Physical line number of the most recently returned row (the header is line 1)
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // Stream offset just after the most recently returned row
+    public long getByteOffset() {
+        return bufferOffset + pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readHeader() throws IOException {
+        int recordEnd = findRecordEnd();
+        if (recordEnd < 0) {
+            throw new IOException("CSV file is empty or missing a header row.");
+        }
+        int start = pos;
+        // Skip a UTF-8 byte order mark
+        if (recordEnd - start >= 3 && buf[start] == (byte) 0xEF && buf[start + 1] == (byte) 0xBB && buf[start + 2] == (byte) 0xBF) {
+            start += 3;
+        }
+        int end = recordEnd;
+        if (end > start && buf[end - 1] == '\r') {
+            end--;
+        }
+        pos = recordEnd < limit ? recordEnd + 1 : recordEnd;
+        if (unterminatedQuote) {
+            throw new IOException("CSV header has an unterminated quoted field.");
+        }
+        return new String(buf, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static int[] mapColumns(String header) throws IOException {
+        String[] columns = header.split(",", -1);
+        int[] roles = new int[columns.length];
+        boolean[] seen = new boolean[ROLE_COUNT];
+        for (int i = 0; i < columns.length; i++) {
+            int role = roleOf(columns[i]);
+            if (role != IGNORED && seen[role]) {
+                role = IGNORED;
+            }
+            roles[i] = role;
+            if (role != IGNORED) {
+                seen[role] = true;
+            }
+        }
+        // Id is optional: rows without one are inserted with a generated id
+        for (int role = CLIENT_ID; role < ROLE_COUNT; role++) {
+            if (!seen[role]) {
+                throw new IOException("CSV header is missing required column: " + ROLE_NAMES[role]);
+            }
+        }
+        return roles;
+    }
+
+    private static int roleOf(String column) {
+        StringBuilder normalized = new StringBuilder(column.length());
+        for (char c : column.toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        switch (normalized.toString()) {
+            case "id":
+            case "transactionid":
+                return ID;
+            case "clientid":
+                return CLIENT_ID;
+            case "transaction":
+            case "transactiontype":
+            case "type":
+                return TYPE;
+            case "amount":
+                return AMOUNT;
+            case "date":
+            case "transactiondate":
+                return DATE;
+            case "status":
+                return STATUS;
+            default:
+                return IGNORED;
+        }
+    }
+
+    /**
+     * Finds the '\n' ending the record that starts at pos, refilling the buffer as needed.
+     * Returns limit for a final record without a newline, or -1 at end of input. If a quote is still open
+     * MAX_QUOTED_FIELD_BYTES later, the record is cut at the end of its first line and unterminatedQuote is set.
+     */
+    private int findRecordEnd() throws IOException {
+        if (pos >= limit) {
+            if (eof || !fill()) {
+                return -1;
+            }
+        }
+        long recordLine = ++lineNumber;
+        int scan = pos;
+        boolean inQuotes = false;
+        // Offset from pos of the quote that opened the current quoted field
+        int quoteStart = 0;
+        while (true) {
+            while (scan < limit) {
+                byte b = buf[scan];
+                if (b == '"') {
+                    // A doubled quote toggles twice, so escapes need no special casing here
+                    inQuotes = !inQuotes;
+                    quoteStart = scan - pos;
+                } else if (b == '\n') {
+                    if (!inQuotes) {
+                        return scan;
+                    }
+                    if (scan - pos - quoteStart > MAX_QUOTED_FIELD_BYTES) {
+                        break;
+                    }
+                    lineNumber++;
+                }
+                scan++;
+            }
+            if (inQuotes && scan - pos - quoteStart > MAX_QUOTED_FIELD_BYTES) {
+                lineNumber = recordLine;
+                unterminatedQuote = true;
+                return findLineEnd();
+            }
+            int scanned = scan - pos;
+            if (eof || !fill()) {
+                return limit;
+            }
+            scan = pos + scanned;
+        }
+    }
+
+    // Finds the first '\n' at or after pos regardless of quoting, or limit if the input ends first
+    private int findLineEnd() throws IOException {
+        int scan = pos;
+        while (true) {
+            while (scan < limit) {
+                if (buf[scan] == '\n') {
+                    return scan;
+                }
+                scan++;
+            }
+            int scanned = scan - pos;
+            if (eof || !fill()) {
+                return limit;
+            }
+            scan = pos + scanned;
+        }
+    }
+
+    // True for an empty line or one holding only whitespace, which is skipped rather than rejected
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buf[i];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\f' && b != 0x0B) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Moves unread bytes to the front of the buffer, grows it if full, and reads more input
+    private boolean fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            bufferOffset += pos;
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            byte[] grown = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, grown, 0, limit);
+            buf = grown;
+        }
+        int read = in.read(buf, limit, buf.length - limit);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private Transaction parseRecord(int start, int end) {
+        for (int role = 0; role < ROLE_COUNT; role++) {
+            fieldStart[role] = -1;
+        }
+
+        int column = 0;
+        int i = start;
+        while (true) {
+            int valueStart;
+            int valueEnd;
+            while (i < end && buf[i] == ' ') {
+                i++;
+            }
+            if (i < end && buf[i] == '"') {
+                valueStart = ++i;
+                while (i < end && buf[i] != '"') {
+                    i++;
+                }
+                if (i >= end) {
+                    throw rowError(start, end, "Unterminated quoted field in column " + (column + 1));
+                }
+                valueEnd = i++;
+                if (i < end && buf[i] == '"') {
+                    // None of the transaction columns may legitimately contain a quote
+                    throw rowError(start, end, "Unexpected quote in column " + (column + 1));
+                }
+                while (i < end && buf[i] == ' ') {
+                    i++;
+                }
+                if (i < end && buf[i] != ',') {
+                    throw rowError(start, end, "Unexpected character after quoted field in column " + (column + 1));
+                }
+            } else {
+                valueStart = i;
+                while (i < end && buf[i] != ',') {
+                    i++;
+                }
+                valueEnd = i;
+                while (valueEnd > valueStart && buf[valueEnd - 1] == ' ') {
+                    valueEnd--;
+                }
+            }
+
+            if (column < columnRoles.length && columnRoles[column] != IGNORED) {
+                fieldStart[columnRoles[column]] = valueStart;
+                fieldEnd[columnRoles[column]] = valueEnd;
+            }
+            column++;
+
+            if (i >= end) {
+                break;
+            }
+            i++; // skip ','
+        }
+
+        for (int role = CLIENT_ID; role < ROLE_COUNT; role++) {
+            if (fieldStart[role] < 0 || fieldStart[role] == fieldEnd[role]) {
+                throw rowError(start, end, "Missing value for " + ROLE_NAMES[role]);
+            }
+        }
+
+        Transaction transaction = new Transaction();
+        if (fieldStart[ID] >= 0 && fieldStart[ID] < fieldEnd[ID]) {
+            transaction.setId(parseLong(start, end, ID));
+        }
+        transaction.setClientId(parseLong(start, end, CLIENT_ID));
+
+        TransactionType type = TYPES.lookup(buf, fieldStart[TYPE], fieldEnd[TYPE]);
+        if (type == null) {
+            throw rowError(start, end, "Invalid transaction type: " + text(TYPE));
+        }
+        transaction.setTransactionType(type);
+        transaction.setAmount(parseAmount(start, end));
+        transaction.setDate(parseDate(start, end));
+
+        TransactionStatus status = STATUSES.lookup(buf, fieldStart[STATUS], fieldEnd[STATUS]);
+        if (status == null) {
+            throw rowError(start, end, "Invalid status: " + text(STATUS));
+        }
+        transaction.setStatus(status);
+        return transaction;
+    }
+
+    private long parseLong(int recordStart, int recordEnd, int role) {
+        int i = fieldStart[role];
+        int end = fieldEnd[role];
+        // Up to 18 digits cannot overflow a long; anything longer takes the checked slow path
+        if (end - i > 18) {
+            try {
+                return Long.parseLong(text(role));
+            } catch (NumberFormatException e) {
+                throw rowError(recordStart, recordEnd, "Invalid " + ROLE_NAMES[role] + ": " + text(role));
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw rowError(recordStart, recordEnd, "Invalid " + ROLE_NAMES[role] + ": " + text(role));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private double parseAmount(int recordStart, int recordEnd) {
+        int i = fieldStart[AMOUNT];
+        int end = fieldEnd[AMOUNT];
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean seenDigit = false;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return parseAmountSlow(recordStart, recordEnd);
+                }
+                if (seenDot) {
+                    fractionDigits++;
+                }
+                seenDigit = true;
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                // Exponents and anything unusual go through the JDK parser
+                return parseAmountSlow(recordStart, recordEnd);
+            }
+        }
+        if (!seenDigit || fractionDigits >= POW10.length) {
+            return parseAmountSlow(recordStart, recordEnd);
+        }
+        double value = fractionDigits == 0 ? mantissa : mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double parseAmountSlow(int recordStart, int recordEnd) {
+        try {
+            return Double.parseDouble(text(AMOUNT));
+        } catch (NumberFormatException e) {
+            throw rowError(recordStart, recordEnd, "Invalid Amount: " + text(AMOUNT));
+        }
+    }
+
+    private LocalDate parseDate(int recordStart, int recordEnd) {
+        int i = fieldStart[DATE];
+        int length = fieldEnd[DATE] - i;
+        if (length == 10 && buf[i + 4] == '-' && buf[i + 7] == '-') {
+            if (lastDate != null && sameAsLastDate(i)) {
+                return lastDate;
+            }
+            int year = digits(i, 4);
+            int month = digits(i + 5, 2);
+            int day = digits(i + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    lastDate = LocalDate.of(year, month, day);
+                    System.arraycopy(buf, i, lastDateBytes, 0, 10);
+                    return lastDate;
+                } catch (DateTimeException e) {
+                    throw rowError(recordStart, recordEnd, "Invalid Date: " + text(DATE));
+                }
+            }
+        }
+        try {
+            return LocalDate.parse(text(DATE));
+        } catch (DateTimeException e) {
+            throw rowError(recordStart, recordEnd, "Invalid Date: " + text(DATE));
+        }
+    }
+
+    private boolean sameAsLastDate(int start) {
+        for (int k = 0; k < 10; k++) {
+            if (buf[start + k] != lastDateBytes[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses count ASCII digits, or returns -1 if any byte is not a digit
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int k = start; k < start + count; k++) {
+            int digit = buf[k] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private String text(int role) {
+        return new String(buf, fieldStart[role], fieldEnd[role] - fieldStart[role], StandardCharsets.UTF_8);
+    }
+
+    private CsvRowException rowError(int recordStart, int recordEnd, String reason) {
+        return new CsvRowException(lineNumber, reason,
+                new String(buf, recordStart, recordEnd - recordStart, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Case-insensitive enum lookup keyed by the first letter of the constant name.
+     */
+    private static class EnumTable<E extends Enum<E>> {
+        private final Object[][] byFirstLetter = new Object[128][];
+        private final byte[][][] namesByFirstLetter = new byte[128][][];
+
+        EnumTable(E[] values) {
+            for (E value : values) {
+                byte[] name = value.name().toUpperCase().getBytes(StandardCharsets.US_ASCII);
+                int key = name[0];
+                Object[] constants = byFirstLetter[key];
+                byte[][] names = namesByFirstLetter[key];
+                int size = constants == null ? 0 : constants.length;
+                Object[] grownConstants = new Object[size + 1];
+                byte[][] grownNames = new byte[size + 1][];
+                if (size > 0) {
+                    System.arraycopy(constants, 0, grownConstants, 0, size);
+                    System.arraycopy(names, 0, grownNames, 0, size);
+                }
+                grownConstants[size] = value;
+                grownNames[size] = name;
+                byFirstLetter[key] = grownConstants;
+                namesByFirstLetter[key] = grownNames;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        E lookup(byte[] buf, int start, int end) {
+            int key = toUpper(buf[start]);
+            if (key < 0 || key >= 128 || byFirstLetter[key] == null) {
+                return null;
+            }
+            byte[][] names = namesByFirstLetter[key];
+            for (int n = 0; n < names.length; n++) {
+                byte[] name = names[n];
+                if (name.length == end - start && matches(name, buf, start)) {
+                    return (E) byFirstLetter[key][n];
+                }
+            }
+            return null;
+        }
+
+        private static boolean matches(byte[] name, byte[] buf, int start) {
+            for (int k = 1; k < name.length; k++) {
+                if (toUpper(buf[start + k]) != name[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int toUpper(byte b) {
+            return (b >= 'a' && b <= 'z') ? b - 32 : b;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.cs301g2t1.transaction.utils;
+
+import com.cs301g2t1.transaction.model.CacheMetrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Small thread-safe cache that evicts the least recently used entry once maxSize is reached and treats
+ * entries older than the TTL as missing.
+ *
+ * Loads happen outside the lock. A load that overlaps an invalidation is returned to its caller but not
+ * cached, so a write can never be hidden behind a value read before it.
+ */
+public class TtlLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Bumped on every invalidation so in-flight loads know their result may be stale
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public TtlLruCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    TtlLruCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.clock = clock;
+        // Access order makes iteration start at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for key, or loads, caches and returns it. Null results are not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && clock.getAsLong() - entry.loadedAt < ttlNanos) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value != null && maxSize > 0) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, clock.getAsLong()));
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized CacheMetrics getMetrics() {
+        // Drop expired entries so size reflects what can still be served
+        long now = clock.getAsLong();
+        for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().loadedAt >= ttlNanos) {
+                it.remove();
+            }
+        }
+        CacheMetrics metrics = new CacheMetrics();
+        metrics.setSize(entries.size());
+        metrics.setMaxSize(maxSize);
+        metrics.setHits(hits);
+        metrics.setMisses(misses);
+        metrics.setEvictions(evictions);
+        long lookups = hits + misses;
+        metrics.setHitRate(lookups > 0 ? (double) hits / lookups : 0);
+        return metrics;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.cs301g2t1.transaction;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.cs301g2t1.transaction.TransactionHandler.Request;
+import com.cs301g2t1.transaction.model.IngestMode;
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionStatus;
+import com.cs301g2t1.transaction.model.TransactionType;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for RequestBinder.
+ */
+public class RequestBinderTest extends TestCase {
+
+    public void testBindsAlbBodyIntoRequestAndTransaction() throws Exception {
+        Map<String, Object> event = Map.of(
+                "path", "/api/v1/transactions",
+                "body", "{\"operation\":\"UPDATE\",\"transactionId\":\"42\",\"ingestMode\":\"copy\",\"unknown\":1,"
+                        + "\"transaction\":{\"clientId\":7,\"transactionType\":\"Deposit\",\"amount\":\"12.5\","
+                        + "\"date\":\"2025-03-04\",\"status\":\"Pending\"}}");
+
+        Request request = RequestBinder.bind(event);
+
+        assertEquals("UPDATE", request.operation);
+        assertEquals(Long.valueOf(42), request.transactionId);
+        assertEquals(IngestMode.COPY, request.ingestMode);
+        assertNull(request.query);
+        Transaction transaction = request.transaction.get();
+        assertEquals(Long.valueOf(7), transaction.getClientId());
+        assertEquals(TransactionType.D, transaction.getTransactionType());
+        assertEquals(12.5, transaction.getAmount());
+        assertEquals(LocalDate.of(2025, 3, 4), transaction.getDate());
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+    }
+
+    public void testGathersPagingFieldsIntoQuery() throws Exception {
+        Request request = RequestBinder.bind(Map.of("operation", "READ_ALL", "limit", 50,
+                "transactionType", "withdrawal", "fromDate", "2025-01-01"));
+
+        assertEquals(Integer.valueOf(50), request.query.getLimit());
+        assertEquals(TransactionType.W, request.query.getTransactionType());
+        assertEquals(LocalDate.of(2025, 1, 1), request.query.getFromDate());
+        assertFalse(request.transaction.isPresent());
+    }
+
+    public void testEventWithoutOperationIsNotBound() throws Exception {
+        assertNull(RequestBinder.bind(Map.of("body", "{\"limit\":5}")));
+    }
+}
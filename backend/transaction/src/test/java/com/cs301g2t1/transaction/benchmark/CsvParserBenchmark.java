@@ -0,0 +1,102 @@
+package com.cs301g2t1.transaction.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionStatus;
+import com.cs301g2t1.transaction.model.TransactionType;
+import com.cs301g2t1.transaction.utils.TransactionCsvTokenizer;
+
+/**
+ * Compares the split-based CSV parsing that dailyFetch used to do with TransactionCsvTokenizer.
+ * Scores are rows per second on a single thread.
+ *
+ * Run after `mvn test-compile` with:
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *       com.cs301g2t1.transaction.benchmark.CsvParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+    private static final int ROWS = 100_000;
+
+    private byte[] csv;
+
+    @Setup
+    public void generateFile() {
+        Random random = new Random(1);
+        StringBuilder builder = new StringBuilder("Id,Client ID,Transaction,Amount,Date,Status\n");
+        String[] statuses = {"Completed", "Pending", "Failed"};
+        for (int i = 0; i < ROWS; i++) {
+            builder.append(100 + i).append(',')
+                   .append(random.nextInt(1000)).append(',')
+                   .append(random.nextBoolean() ? 'D' : 'W').append(',')
+                   .append(random.nextInt(100000) / 100.0).append(',')
+                   .append(LocalDate.of(2025, 1, 1).plusDays(i / 5000)).append(',')
+                   .append(statuses[random.nextInt(statuses.length)]).append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // The parsing loop TransactionUtils.parseCsvToTransactions used before the tokenizer
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void splitParser(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(csv)))) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                Transaction transaction = new Transaction();
+                transaction.setId(Long.parseLong(fields[0]));
+                transaction.setClientId(Long.parseLong(fields[1]));
+                transaction.setTransactionType(TransactionType.valueOf(fields[2].toUpperCase()));
+                transaction.setAmount(Double.parseDouble(fields[3]));
+                transaction.setDate(LocalDate.parse(fields[4]));
+                transaction.setStatus(TransactionStatus.valueOf(fields[5].toUpperCase()));
+                blackhole.consume(transaction);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void tokenizer(Blackhole blackhole) throws IOException {
+        try (TransactionCsvTokenizer tokenizer = new TransactionCsvTokenizer(new ByteArrayInputStream(csv))) {
+            Transaction transaction;
+            while ((transaction = tokenizer.next()) != null) {
+                blackhole.consume(transaction);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CsvParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}
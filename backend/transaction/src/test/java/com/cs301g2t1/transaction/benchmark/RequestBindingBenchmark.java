@@ -0,0 +1,135 @@
+package com.cs301g2t1.transaction.benchmark;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.cs301g2t1.transaction.RequestBinder;
+import com.cs301g2t1.transaction.TransactionHandler.Request;
+import com.cs301g2t1.transaction.model.Response;
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionStatus;
+import com.cs301g2t1.transaction.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Compares how TransactionHandler used to bind an ALB request body (parse into a Map, then copy field by field)
+ * and serialize its response (a new ObjectMapper per response) with RequestBinder's reused reader and writer.
+ * Scores are nanoseconds per request on a single thread; add -prof gc for bytes allocated per request.
+ *
+ * Run after `mvn test-compile` with:
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *       com.cs301g2t1.transaction.benchmark.RequestBindingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBindingBenchmark {
+    private static final String BODY = "{\"operation\":\"UPDATE\",\"transactionId\":42,\"transaction\":"
+            + "{\"id\":42,\"clientId\":7,\"transactionType\":\"DEPOSIT\",\"amount\":125.5,"
+            + "\"date\":\"2025-03-04\",\"status\":\"PENDING\"}}";
+
+    // The handler's long-lived mapper, which the old code used only to parse the body into a Map
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+
+    private final Transaction transaction = RequestBinder.fromMap(Map.of("operation", "READ",
+            "transaction", Map.of("id", 42, "clientId", 7, "transactionType", "D", "amount", 125.5,
+                    "date", "2025-03-04", "status", "PENDING"))).transaction.get();
+
+    private final ObjectWriter sharedWriter = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writer();
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Request mapBinding() throws Exception {
+        Map<String, Object> bodyMap = legacyMapper.readValue(BODY, Map.class);
+        Request request = new Request();
+        request.operation = (String) bodyMap.get("operation");
+        Object transactionId = bodyMap.get("transactionId");
+        if (transactionId instanceof Number) {
+            request.transactionId = ((Number) transactionId).longValue();
+        } else if (transactionId != null) {
+            request.transactionId = Long.valueOf(transactionId.toString());
+        }
+        if (bodyMap.get("transaction") instanceof Map map) {
+            request.transaction = Optional.of(mapToTransaction(map));
+        }
+        return request;
+    }
+
+    @Benchmark
+    public Request typedBinding() throws Exception {
+        return RequestBinder.fromJson(BODY);
+    }
+
+    @Benchmark
+    public String mapperPerResponse() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        return mapper.writeValueAsString(new Response<>(true, "Transaction retrieved successfully", transaction));
+    }
+
+    @Benchmark
+    public String sharedWriterResponse() throws Exception {
+        return sharedWriter.writeValueAsString(new Response<>(true, "Transaction retrieved successfully", transaction));
+    }
+
+    // TransactionHandler.mapToTransaction as it was, minus the error logging
+    private static Transaction mapToTransaction(Map<String, Object> map) {
+        Transaction transaction = new Transaction();
+        Object id = map.get("id");
+        if (id != null) {
+            transaction.setId(id instanceof Number ? ((Number) id).longValue() : Long.valueOf(id.toString()));
+        }
+        Object clientId = map.get("clientId");
+        if (clientId != null) {
+            transaction.setClientId(clientId instanceof Number
+                    ? ((Number) clientId).longValue() : Long.valueOf(clientId.toString()));
+        }
+        String type = (String) map.get("transactionType");
+        if ("DEPOSIT".equalsIgnoreCase(type)) {
+            transaction.setTransactionType(TransactionType.D);
+        } else if ("WITHDRAWAL".equalsIgnoreCase(type)) {
+            transaction.setTransactionType(TransactionType.W);
+        } else if (type != null) {
+            transaction.setTransactionType(TransactionType.valueOf(type));
+        }
+        Object amount = map.get("amount");
+        if (amount != null) {
+            transaction.setAmount(amount instanceof Number
+                    ? ((Number) amount).doubleValue() : Double.valueOf(amount.toString()));
+        }
+        if (map.get("date") != null) {
+            transaction.setDate(LocalDate.parse((String) map.get("date")));
+        }
+        if (map.get("status") != null) {
+            transaction.setStatus(TransactionStatus.valueOf((String) map.get("status")));
+        }
+        return transaction;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RequestBindingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
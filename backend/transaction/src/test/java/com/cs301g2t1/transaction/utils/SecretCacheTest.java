@@ -0,0 +1,92 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for SecretCache.
+ */
+public class SecretCacheTest extends TestCase {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private String fetch(String name) {
+        return name + "-" + fetches.incrementAndGet();
+    }
+
+    private SecretCache cache(SecretSource source) {
+        // TTL 100ms, refresh after 60ms; background refreshes run when the test says so
+        return new SecretCache(source, 100, 60, now::get, refreshes::add);
+    }
+
+    public void testServesCachedValueUntilRefreshAfter() {
+        SecretCache cache = cache(this::fetch);
+
+        assertEquals("key-1", cache.get("key"));
+        now.addAndGet(59_000_000L);
+        assertEquals("key-1", cache.get("key"));
+        assertEquals(1, fetches.get());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    public void testRefreshesAheadOfExpiryInBackground() {
+        SecretCache cache = cache(this::fetch);
+        cache.get("key");
+
+        now.addAndGet(70_000_000L);
+        // The old value is still served while one refresh is queued
+        assertEquals("key-1", cache.get("key"));
+        assertEquals("key-1", cache.get("key"));
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+        assertEquals("key-2", cache.get("key"));
+        // The refreshed value starts a new TTL
+        now.addAndGet(90_000_000L);
+        assertEquals("key-2", cache.get("key"));
+        assertEquals(2, fetches.get());
+    }
+
+    public void testFetchesSynchronouslyOnceExpired() {
+        SecretCache cache = cache(this::fetch);
+        cache.get("key");
+
+        now.addAndGet(100_000_000L);
+        assertEquals("key-2", cache.get("key"));
+        assertTrue(refreshes.isEmpty());
+    }
+
+    public void testFailedRefreshKeepsOldValueAndFailedFetchIsRetried() {
+        AtomicBoolean failing = new AtomicBoolean();
+        SecretCache cache = cache(name -> {
+            if (failing.get()) {
+                throw new IllegalStateException("throttled");
+            }
+            return "value";
+        });
+        cache.get("key");
+
+        failing.set(true);
+        now.addAndGet(70_000_000L);
+        cache.get("key");
+        refreshes.get(0).run();
+        assertEquals("value", cache.get("key"));
+
+        now.addAndGet(30_000_000L);
+        try {
+            cache.get("key");
+            fail("Expected the synchronous fetch to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("throttled", e.getMessage());
+        }
+        failing.set(false);
+        assertEquals("value", cache.get("key"));
+    }
+}
@@ -0,0 +1,188 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.cs301g2t1.transaction.model.Transaction;
+import com.cs301g2t1.transaction.model.TransactionStatus;
+import com.cs301g2t1.transaction.model.TransactionType;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for TransactionCsvTokenizer.
+ */
+public class TransactionCsvTokenizerTest extends TestCase {
+
+    private static TransactionCsvTokenizer tokenizer(String csv, int bufferSize) throws IOException {
+        return new TransactionCsvTokenizer(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+
+    public void testParsesStandardFile() throws IOException {
+        TransactionCsvTokenizer tokenizer = tokenizer(
+                "Id,Client ID,Transaction,Amount,Date,Status\r\n"
+                + "101,37,W,476.39,2025-04-08,Pending\r\n"
+                + "102,91,d,226.1,2025-01-22,COMPLETED\r\n", 64 * 1024);
+
+        Transaction first = tokenizer.next();
+        assertEquals(Long.valueOf(101), first.getId());
+        assertEquals(Long.valueOf(37), first.getClientId());
+        assertEquals(TransactionType.W, first.getTransactionType());
+        assertEquals(476.39, first.getAmount());
+        assertEquals(LocalDate.of(2025, 4, 8), first.getDate());
+        assertEquals(TransactionStatus.PENDING, first.getStatus());
+        assertEquals(2, tokenizer.getLineNumber());
+
+        Transaction second = tokenizer.next();
+        assertEquals(TransactionType.D, second.getTransactionType());
+        assertEquals(TransactionStatus.COMPLETED, second.getStatus());
+        assertNull(tokenizer.next());
+    }
+
+    public void testMapsColumnsFromHeader() throws IOException {
+        TransactionCsvTokenizer tokenizer = tokenizer(
+                "\uFEFFstatus,date,branch,amount,\"transaction\",client_id\n"
+                + "\"Failed\",2024-12-31,\"North, East\",\"-12.5\",W,7", 64 * 1024);
+
+        Transaction transaction = tokenizer.next();
+        assertNull(transaction.getId());
+        assertEquals(Long.valueOf(7), transaction.getClientId());
+        assertEquals(-12.5, transaction.getAmount());
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        assertNull(tokenizer.next());
+    }
+
+    public void testQuotedLineBreakAcrossBufferRefills() throws IOException {
+        TransactionCsvTokenizer tokenizer = tokenizer(
+                "Id,Client ID,Transaction,Amount,Date,Status,Note\n"
+                + "1,2,D,3,2025-01-01,Pending,\"a long\nnote\"\n"
+                + "\n"
+                + "2,2,D,4,2025-01-01,Pending,x\n", 8);
+
+        assertEquals(Long.valueOf(1), tokenizer.next().getId());
+        assertEquals(Long.valueOf(2), tokenizer.next().getId());
+        assertEquals(5, tokenizer.getLineNumber());
+        assertNull(tokenizer.next());
+    }
+
+    public void testWhitespaceOnlyLinesAreSkipped() throws IOException {
+        TransactionCsvTokenizer tokenizer = tokenizer(
+                "Id,Client ID,Transaction,Amount,Date,Status\n"
+                + "  \t\r\n"
+                + "1,2,D,3,2025-01-01,Pending\n"
+                + " \n", 64 * 1024);
+
+        assertEquals(Long.valueOf(1), tokenizer.next().getId());
+        assertEquals(3, tokenizer.getLineNumber());
+        assertNull(tokenizer.next());
+    }
+
+    public void testUnbalancedQuoteOnlyRejectsItsOwnLine() throws IOException {
+        StringBuilder csv = new StringBuilder("Id,Client ID,Transaction,Amount,Date,Status,Note\n"
+                + "1,2,D,3,2025-01-01,Pending,\"unclosed\n");
+        // Enough following rows that the open quote runs past the quoted-field limit
+        int rows = 2000;
+        for (int i = 0; i < rows; i++) {
+            csv.append(100 + i).append(",2,D,3,2025-01-01,Pending,some longer note text to fill the quote\n");
+        }
+        TransactionCsvTokenizer tokenizer = tokenizer(csv.toString(), 1024);
+
+        try {
+            tokenizer.next();
+            fail("Expected unterminated quoted field");
+        } catch (CsvRowException e) {
+            assertEquals(2, e.getLineNumber());
+            assertEquals("1,2,D,3,2025-01-01,Pending,\"unclosed", e.getRawLine());
+        }
+        int parsed = 0;
+        while (tokenizer.next() != null) {
+            parsed++;
+        }
+        assertEquals(rows, parsed);
+        assertEquals(rows + 2, tokenizer.getLineNumber());
+    }
+
+    public void testAmountsMatchJdkParser() throws IOException {
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder("Id,Client ID,Transaction,Amount,Date,Status\n");
+        String[] amounts = new String[1000];
+        for (int i = 0; i < amounts.length; i++) {
+            long cents = (long) (random.nextDouble() * 1_000_000_000L);
+            amounts[i] = (cents / 100) + "." + String.format("%02d", cents % 100);
+            if (i % 10 == 0) {
+                amounts[i] = String.valueOf(random.nextDouble() * 1e6);
+            }
+            csv.append(i).append(",1,D,").append(amounts[i]).append(",2025-01-01,Completed\n");
+        }
+        TransactionCsvTokenizer tokenizer = tokenizer(csv.toString(), 64 * 1024);
+        for (String amount : amounts) {
+            assertEquals(amount, Double.parseDouble(amount), tokenizer.next().getAmount());
+        }
+    }
+
+    public void testMalformedRowIsReportedAndSkipped() throws IOException {
+        TransactionCsvTokenizer tokenizer = tokenizer(
+                "Id,Client ID,Transaction,Amount,Date,Status\n"
+                + "1,2,X,3,2025-01-01,Pending\n"
+                + "2,2,D,3,2025-02-30,Pending\n"
+                + "3,2,D,3,2025-01-01,Pending\n", 64 * 1024);
+
+        try {
+            tokenizer.next();
+            fail("Expected invalid transaction type");
+        } catch (CsvRowException e) {
+            assertEquals(2, e.getLineNumber());
+            assertEquals("1,2,X,3,2025-01-01,Pending", e.getRawLine());
+        }
+        try {
+            tokenizer.next();
+            fail("Expected invalid date");
+        } catch (CsvRowException e) {
+            assertEquals(3, e.getLineNumber());
+        }
+        assertEquals(Long.valueOf(3), tokenizer.next().getId());
+    }
+
+    public void testReaderRejectsMalformedRowsAndResumesFromOffset() throws IOException {
+        String csv = "Id,Client ID,Transaction,Amount,Date,Status\n"
+                + "1,2,D,3,2025-01-01,Pending\n"
+                + "2,2,X,3,2025-01-01,Pending\n"
+                + "3,2,D,3,2025-01-01,Pending\n"
+                + "4,2,W,3,2025-01-01,Pending\n";
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        List<Long> rejectedLines = new ArrayList<>();
+        TransactionCsvReader reader = new TransactionCsvReader(new ByteArrayInputStream(bytes));
+        reader.setRejectHandler((error, byteOffset) -> rejectedLines.add(error.getLineNumber()));
+
+        assertEquals(Long.valueOf(1), reader.next().getId());
+        assertEquals(Long.valueOf(3), reader.next().getId());
+        assertEquals(List.of(3L), rejectedLines);
+        assertEquals(4, reader.getLineNumber());
+        long offset = reader.getByteOffset();
+        assertTrue(reader.hasNext());
+        // Reading ahead does not move the position of the last returned row
+        assertEquals(offset, reader.getByteOffset());
+
+        TransactionCsvReader resumed = new TransactionCsvReader(
+                new ByteArrayInputStream(bytes, (int) offset, bytes.length - (int) offset),
+                reader.getHeader(), offset, reader.getLineNumber());
+        assertEquals(Long.valueOf(4), resumed.next().getId());
+        assertEquals(5, resumed.getLineNumber());
+        assertEquals(bytes.length, resumed.getByteOffset());
+        assertFalse(resumed.hasNext());
+    }
+
+    public void testMissingRequiredColumnFails() {
+        try {
+            tokenizer("Id,Client ID,Transaction,Date,Status\n", 64 * 1024);
+            fail("Expected missing Amount column");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Amount"));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cs301g2t1.transaction.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cs301g2t1.transaction.model.CacheMetrics;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for TtlLruCache.
+ */
+public class TtlLruCacheTest extends TestCase {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(Integer key) {
+        loads.incrementAndGet();
+        return "v" + key;
+    }
+
+    public void testCachesUntilTtlExpires() {
+        TtlLruCache<Integer, String> cache = new TtlLruCache<>(10, 100, now::get);
+
+        assertEquals("v1", cache.get(1, this::load));
+        now.addAndGet(99_000_000L);
+        assertEquals("v1", cache.get(1, this::load));
+        assertEquals(1, loads.get());
+
+        now.addAndGet(1_000_000L);
+        assertEquals("v1", cache.get(1, this::load));
+        assertEquals(2, loads.get());
+
+        CacheMetrics metrics = cache.getMetrics();
+        assertEquals(1, metrics.getHits());
+        assertEquals(2, metrics.getMisses());
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        TtlLruCache<Integer, String> cache = new TtlLruCache<>(2, 1000, now::get);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+
+        // 2 was the least recently used entry when 3 arrived
+        cache.get(1, this::load);
+        assertEquals(3, loads.get());
+        cache.get(2, this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getMetrics().getEvictions());
+    }
+
+    public void testInvalidationDuringLoadIsNotCached() {
+        TtlLruCache<Integer, String> cache = new TtlLruCache<>(10, 1000, now::get);
+        assertEquals("stale", cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale";
+        }));
+        assertEquals("v1", cache.get(1, this::load));
+        assertEquals(1, loads.get());
+    }
+
+    public void testNullIsNotCached() {
+        TtlLruCache<Integer, String> cache = new TtlLruCache<>(10, 1000, now::get);
+        assertNull(cache.get(1, key -> null));
+        assertEquals("v1", cache.get(1, this::load));
+        assertEquals(0, cache.getMetrics().getHits());
+    }
+}
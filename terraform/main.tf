@@ -310,6 +310,22 @@ module "sftp_server" {
   sftp_private_key_secret_name = var.sftp_private_key_secret_name
 }
 
+#--------------------------------------------------------------
+# Transaction Schema Initialization
+# Creates or upgrades the transaction tables once per deploy, so
+# the function's containers skip the DDL when they start.
+# Containers (including ones restored from a SnapStart snapshot
+# taken before this runs) read the table layout on first use
+#--------------------------------------------------------------
+resource "aws_lambda_invocation" "transaction_schema_init" {
+  function_name = module.lambda.lambda_function_names["transaction"]
+  input         = jsonencode({ operation = "initSchema" })
+
+  triggers = {
+    source_code_hash = filebase64sha256(var.lambda_functions["transaction"].filename)
+  }
+}
+
 #--------------------------------------------------------------
 # EventBridge Module
 # Manages EventBridge rules and targets for scheduling tasks
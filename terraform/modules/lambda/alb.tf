@@ -18,6 +18,7 @@ resource "aws_lambda_permission" "allow_alb" {
   statement_id  = "AllowExecutionFromALB"
   action        = "lambda:InvokeFunction"
   function_name = aws_lambda_function.lambda_functions[each.key].function_name
+  qualifier     = lookup(each.value, "snap_start", false) ? aws_lambda_alias.live[each.key].name : null
   principal     = "elasticloadbalancing.amazonaws.com"
 }
 
@@ -49,7 +50,7 @@ resource "aws_lb_target_group_attachment" "lambda_target_attachment" {
   }
 
   target_group_arn = aws_lb_target_group.lambda_target_group[each.key].arn
-  target_id        = aws_lambda_function.lambda_functions[each.key].arn
+  target_id        = lookup(each.value, "snap_start", false) ? aws_lambda_alias.live[each.key].arn : aws_lambda_function.lambda_functions[each.key].arn
   depends_on       = [aws_lambda_permission.allow_alb]
 }
 
@@ -32,6 +32,17 @@ resource "aws_lambda_function" "lambda_functions" {
   memory_size      = each.value.memory_size                 # Memory allocation in MB (affects CPU allocation too)
   role             = aws_iam_role.lambda_role[each.key].arn # IAM role with appropriate permissions
 
+  # SnapStart snapshots the initialized runtime when a version is published and restores it on cold starts.
+  # It only applies to published versions, which are invoked through the "live" alias below
+  publish = lookup(each.value, "snap_start", false)
+
+  dynamic "snap_start" {
+    for_each = lookup(each.value, "snap_start", false) ? [1] : []
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
+
   # Enable AWS X-Ray tracing for better monitoring and debugging
   tracing_config {
     mode = "Active" # Automatically trace all incoming requests
@@ -99,6 +110,23 @@ resource "aws_lambda_function" "lambda_functions" {
   }
 }
 
+#------------------------------------------------------------------------------
+# Aliases for SnapStart Functions
+#
+# Points at the version published with the latest code, so callers reach the
+# SnapStart snapshot instead of $LATEST (which always initializes from scratch)
+#------------------------------------------------------------------------------
+resource "aws_lambda_alias" "live" {
+  for_each = {
+    for k, v in var.lambda_functions : k => v
+    if lookup(v, "snap_start", false) == true
+  }
+
+  name             = "live"
+  function_name    = aws_lambda_function.lambda_functions[each.key].function_name
+  function_version = aws_lambda_function.lambda_functions[each.key].version
+}
+
 #------------------------------------------------------------------------------
 # SQS Event Source Mapping for Lambda
 # Sets up triggers for Lambda functions that process SQS messages
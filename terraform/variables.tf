@@ -178,6 +178,7 @@ variable "lambda_functions" {
     sqs_enabled      = optional(bool, false)
     s3_enabled       = optional(bool, false)
     public_facing    = optional(bool, false) # Whether this Lambda should be exposed via ALB
+    snap_start       = optional(bool, false) # Restore published versions from a SnapStart snapshot (Java only)
 
     # SQS specific configuration
     sqs_trigger_enabled         = optional(bool, false)
@@ -191,7 +192,7 @@ variable "lambda_functions" {
   default = {
     transaction = {
       name          = "transaction_lambda_function"
-      handler       = "com.cs301g2t1.transaction.TransactionHandler::handleRequest"
+      handler       = "com.cs301g2t1.transaction.TransactionStreamHandler::handleRequest"
       runtime       = "java21"
       filename      = "../backend/transaction/target/transaction-1.0-SNAPSHOT.jar"
       timeout       = 90
@@ -199,9 +200,12 @@ variable "lambda_functions" {
       rds_enabled   = true
       sftp_enabled  = true
       public_facing = true
+      snap_start    = true
       environment_variables = {
         SFTP_PORT   = "22"
         SFTP_TARGET = "/sftp/target"
+        # The schema DDL runs once per deploy through the initSchema invocation in main.tf
+        SCHEMA_INIT_ON_STARTUP = "false"
       }
     },
     user = {